@@ -23,6 +23,9 @@
  */
 package janus.core.heap;
 
+import janus.core.util.Bytes;
+import janus.core.util.SizeOf;
+
 /**
  *
  * @author Y.K. Chan
@@ -37,6 +40,58 @@ public interface Page extends AutoCloseable {
     
     public void read(int at, byte[] buf, int off, int len);
     
+    /*
+     * Big-endian primitive accessors. Implementations backed by memory override 
+     * these to access the page in place without creating garbage.
+     */
+    public default short getShort(int at) {
+        byte[] data = new byte[SizeOf.SHORT.length];
+        this.read(at, data, 0, data.length);
+        return Bytes.getShort(data, 0);
+    }
+    
+    public default void putShort(int at, short value) {
+        byte[] data = new byte[SizeOf.SHORT.length];
+        Bytes.putShort(data, 0, value);
+        this.write(at, data, 0, data.length);
+    }
+    
+    public default int getInt(int at) {
+        byte[] data = new byte[SizeOf.INT.length];
+        this.read(at, data, 0, data.length);
+        return Bytes.getInt(data, 0);
+    }
+    
+    public default void putInt(int at, int value) {
+        byte[] data = new byte[SizeOf.INT.length];
+        Bytes.putInt(data, 0, value);
+        this.write(at, data, 0, data.length);
+    }
+    
+    public default long getLong(int at) {
+        byte[] data = new byte[SizeOf.LONG.length];
+        this.read(at, data, 0, data.length);
+        return Bytes.getLong(data, 0);
+    }
+    
+    public default void putLong(int at, long value) {
+        byte[] data = new byte[SizeOf.LONG.length];
+        Bytes.putLong(data, 0, value);
+        this.write(at, data, 0, data.length);
+    }
+    
+    public default void getLongs(int at, long[] values, int off, int len) {
+        byte[] data = new byte[len * SizeOf.LONG.length];
+        this.read(at, data, 0, data.length);
+        Bytes.getLongs(data, 0, values, off, len);
+    }
+    
+    public default void putLongs(int at, long[] values, int off, int len) {
+        byte[] data = new byte[len * SizeOf.LONG.length];
+        Bytes.putLongs(data, 0, values, off, len);
+        this.write(at, data, 0, data.length);
+    }
+    
     public void commit();
 
     @Override
@@ -24,6 +24,8 @@
 
 package janus.core.heap;
 
+import janus.core.util.Extent;
+
 /**
  *
  * @author Y.K. Chan
@@ -32,6 +34,16 @@ public interface Session extends AutoCloseable {
     
     public Page alloc();
     
+    /**
+     * Allocate a run of contiguous pages. Page objects are created on request from
+     * the extent returned, as new pages returned by alloc().
+     * @param count  Number of pages
+     * @return  Extent of pages
+     */
+    public default Extent<Page> alloc(int count) {
+        throw new UnsupportedOperationException("Contiguous allocation not supported.");
+    }
+    
     public void free(Page page);
     
     public Page fetch(long addr);
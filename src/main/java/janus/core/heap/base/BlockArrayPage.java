@@ -25,7 +25,9 @@
 package janus.core.heap.base;
 
 import janus.core.heap.Page;
-import java.util.Arrays;
+import janus.core.util.Bytes;
+import janus.core.util.SizeOf;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.BiConsumer;
 
@@ -49,8 +51,7 @@ public class BlockArrayPage implements Page {
                 }) 
                 .orElseThrow(() -> new IllegalArgumentException());
         this.pageLen = arrayList.size() * arrayList.get(0).length;
-        this.dirty = new boolean[arrayList.size()];
-        Arrays.fill(this.dirty, false);
+        this.dirty = new BitSet(arrayList.size());
     }
     
     @Override
@@ -79,7 +80,7 @@ public class BlockArrayPage implements Page {
             System.arraycopy(buf, off + done, this.arrayList.get(block), start, limit);
             done += limit;
             
-            dirty[block] = true;
+            this.dirty.set(block);
         }
     }
 
@@ -97,13 +98,77 @@ public class BlockArrayPage implements Page {
         }
     }
 
+    @Override
+    public short getShort(int at) {
+        byte[] block = this.blockOf(at, SizeOf.SHORT.length);
+        return block == null ? Page.super.getShort(at) : Bytes.getShort(block, at % this.blockLen);
+    }
+
+    @Override
+    public void putShort(int at, short value) {
+        byte[] block = this.blockOf(at, SizeOf.SHORT.length);
+        if(block == null) {
+            Page.super.putShort(at, value);
+            return;
+        }
+        Bytes.putShort(block, at % this.blockLen, value);
+        this.dirty.set(at / this.blockLen);
+    }
+
+    @Override
+    public int getInt(int at) {
+        byte[] block = this.blockOf(at, SizeOf.INT.length);
+        return block == null ? Page.super.getInt(at) : Bytes.getInt(block, at % this.blockLen);
+    }
+
+    @Override
+    public void putInt(int at, int value) {
+        byte[] block = this.blockOf(at, SizeOf.INT.length);
+        if(block == null) {
+            Page.super.putInt(at, value);
+            return;
+        }
+        Bytes.putInt(block, at % this.blockLen, value);
+        this.dirty.set(at / this.blockLen);
+    }
+
+    @Override
+    public long getLong(int at) {
+        byte[] block = this.blockOf(at, SizeOf.LONG.length);
+        return block == null ? Page.super.getLong(at) : Bytes.getLong(block, at % this.blockLen);
+    }
+
+    @Override
+    public void putLong(int at, long value) {
+        byte[] block = this.blockOf(at, SizeOf.LONG.length);
+        if(block == null) {
+            Page.super.putLong(at, value);
+            return;
+        }
+        Bytes.putLong(block, at % this.blockLen, value);
+        this.dirty.set(at / this.blockLen);
+    }
+
+    @Override
+    public void getLongs(int at, long[] values, int off, int len) {
+        for(int i = 0; i < len; i++) {
+            values[off + i] = this.getLong(at + i * SizeOf.LONG.length);
+        }
+    }
+
+    @Override
+    public void putLongs(int at, long[] values, int off, int len) {
+        for(int i = 0; i < len; i++) {
+            this.putLong(at + i * SizeOf.LONG.length, values[off + i]);
+        }
+    }
+
     @Override
     public void commit() {
-        for(int i = 0; i < this.dirty.length; i++){
-            if(this.dirty[i]){
-                this.flush.accept(this.addr + i * this.blockLen, this.arrayList.get(i));
-            }
+        for(int i = this.dirty.nextSetBit(0); i >= 0; i = this.dirty.nextSetBit(i + 1)){
+            this.flush.accept(this.addr + i * this.blockLen, this.arrayList.get(i));
         }
+        this.dirty.clear();
     }
 
     @Override
@@ -111,9 +176,24 @@ public class BlockArrayPage implements Page {
         
     }
 
+    /**
+     * Find the block containing a whole value.
+     * @param at  Position of value
+     * @param len  Length of value
+     * @return  Block containing the value, or null if it spans across blocks
+     */
+    protected byte[] blockOf(int at, int len) {
+        if(at < 0 || at + len > this.pageLen){
+            throw new ArrayIndexOutOfBoundsException("Range [" + at + "," + (at + len) +") is out of bound "
+                + this.pageLen);
+        }
+        int start = at % this.blockLen;
+        return start + len > this.blockLen ? null : this.arrayList.get(at / this.blockLen);
+    }
+
     private long addr;
     private int pageLen, blockLen;
     private List<byte[]> arrayList;
-    private boolean[] dirty;
+    private BitSet dirty;
     private BiConsumer<Long, byte[]> flush;
 }
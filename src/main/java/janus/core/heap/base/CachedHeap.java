@@ -0,0 +1,164 @@
+package janus.core.heap.base;
+
+import janus.core.heap.Heap;
+import janus.core.heap.Page;
+import janus.core.heap.Session;
+import janus.core.util.BufferPool;
+import janus.core.util.ClockPolicy;
+import janus.core.util.EvictionPolicy;
+
+/**
+ * Heap keeping a bounded number of pages in memory. Commits of a page are 
+ * deferred until the page is evicted or the session is committed.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class CachedHeap implements Heap {
+
+    public CachedHeap(Heap base, int capacity) {
+        this(base, capacity, new ClockPolicy(capacity));
+    }
+
+    public CachedHeap(Heap base, int capacity, EvictionPolicy policy) {
+        this.base = base;
+        this.session = base.newSession();
+        this.pool = new BufferPool<>(capacity, Page::commit, policy);
+    }
+
+    @Override
+    public Session newSession() {
+        return new Session() {
+
+            @Override
+            public Page alloc() {
+                Page page = session.alloc();
+                return handle(pool.put(page.address(), page));
+            }
+
+            @Override
+            public void free(Page page) {
+                // free the base page rather than the handle, with its pending contents
+                Page cached = pool.remove(page.address());
+                session.free(cached == null ? page : cached);
+            }
+
+            @Override
+            public Page fetch(long addr) {
+                return handle(pool.pin(addr, session::fetch));
+            }
+
+            @Override
+            public void commit() {
+                pool.flush();
+                session.commit();
+            }
+
+            @Override
+            public void close() {
+                // pages are owned by the pool
+            }
+            
+        };
+    }
+    
+    @Override
+    public void close() throws Exception {
+        try(Session sess = this.session){
+            this.pool.flush();
+            sess.commit();
+        } finally {
+            this.base.close();
+        }
+    }
+    
+    protected Page handle(BufferPool.Frame<Page> frame) {
+        Page page = frame.page();
+        return new Page() {
+
+            @Override
+            public long address() {
+                return page.address();
+            }
+
+            @Override
+            public int length() {
+                return page.length();
+            }
+
+            @Override
+            public void write(int at, byte[] buf, int off, int len) {
+                page.write(at, buf, off, len);
+                frame.markDirty();
+            }
+
+            @Override
+            public void read(int at, byte[] buf, int off, int len) {
+                page.read(at, buf, off, len);
+            }
+
+            @Override
+            public short getShort(int at) {
+                return page.getShort(at);
+            }
+
+            @Override
+            public void putShort(int at, short value) {
+                page.putShort(at, value);
+                frame.markDirty();
+            }
+
+            @Override
+            public int getInt(int at) {
+                return page.getInt(at);
+            }
+
+            @Override
+            public void putInt(int at, int value) {
+                page.putInt(at, value);
+                frame.markDirty();
+            }
+
+            @Override
+            public long getLong(int at) {
+                return page.getLong(at);
+            }
+
+            @Override
+            public void putLong(int at, long value) {
+                page.putLong(at, value);
+                frame.markDirty();
+            }
+
+            @Override
+            public void getLongs(int at, long[] values, int off, int len) {
+                page.getLongs(at, values, off, len);
+            }
+
+            @Override
+            public void putLongs(int at, long[] values, int off, int len) {
+                page.putLongs(at, values, off, len);
+                frame.markDirty();
+            }
+
+            @Override
+            public void commit() {
+                // written back on eviction or session commit
+            }
+
+            @Override
+            public void close() {
+                if(!this.closed) {
+                    this.closed = true;
+                    pool.unpin(frame);
+                }
+            }
+            
+            private boolean closed = false;
+        };
+    }
+
+    private Heap base;
+    private Session session;
+    private BufferPool<Page> pool;
+}
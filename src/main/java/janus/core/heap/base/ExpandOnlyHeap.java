@@ -5,11 +5,13 @@ import java.nio.LongBuffer;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import janus.core.heap.Heap;
 import janus.core.heap.Page;
 import janus.core.heap.Session;
 import janus.core.repo.Repository;
+import janus.core.util.Extent;
 
 public class ExpandOnlyHeap implements Heap {
     
@@ -36,6 +38,12 @@ public class ExpandOnlyHeap implements Heap {
                 return makePage(expand(), Arrays.asList(new byte[pageLen / blockLen][blockLen]));
             }
 
+            @Override
+            public Extent<Page> alloc(int count) {
+                return new Extent<>(expand(count), count, pageLen, 
+                    a -> makePage(a, Arrays.asList(new byte[pageLen / blockLen][blockLen])));
+            }
+
             @Override
             public void free(Page page) {
                 throw new UnsupportedOperationException();
@@ -49,6 +57,8 @@ public class ExpandOnlyHeap implements Heap {
             @Override
             public void commit() {
                 // rollback not supported
+                sync();
+                repo.commit();
             }
 
             @Override
@@ -64,7 +74,7 @@ public class ExpandOnlyHeap implements Heap {
         try { 
             this.metaValues.put(0, FLAG);
             this.metaValues.put(IDX_PAGE_LEN, this.pageLen);
-            this.metaValues.put(IDX_HEAP_SIZE, this.size);            
+            this.metaValues.put(IDX_HEAP_SIZE, this.size.get());            
             this.repo.write(0L, this.metaData);
         } finally {
             this.repo.close();
@@ -97,6 +107,46 @@ public class ExpandOnlyHeap implements Heap {
                     page.read(META_DATA_LEN + at, buf, off, len);
                 }
 
+                @Override
+                public short getShort(int at) {
+                    return page.getShort(META_DATA_LEN + at);
+                }
+
+                @Override
+                public void putShort(int at, short value) {
+                    page.putShort(META_DATA_LEN + at, value);
+                }
+
+                @Override
+                public int getInt(int at) {
+                    return page.getInt(META_DATA_LEN + at);
+                }
+
+                @Override
+                public void putInt(int at, int value) {
+                    page.putInt(META_DATA_LEN + at, value);
+                }
+
+                @Override
+                public long getLong(int at) {
+                    return page.getLong(META_DATA_LEN + at);
+                }
+
+                @Override
+                public void putLong(int at, long value) {
+                    page.putLong(META_DATA_LEN + at, value);
+                }
+
+                @Override
+                public void getLongs(int at, long[] values, int off, int len) {
+                    page.getLongs(META_DATA_LEN + at, values, off, len);
+                }
+
+                @Override
+                public void putLongs(int at, long[] values, int off, int len) {
+                    page.putLongs(META_DATA_LEN + at, values, off, len);
+                }
+
                 @Override
                 public void commit() {
                     page.commit();
@@ -113,24 +163,42 @@ public class ExpandOnlyHeap implements Heap {
     }
     
     protected long expand() {
+        return this.expand(1);
+    }
+    
+    protected long expand(int count) {
+        if(count < 0) {
+            throw new IllegalArgumentException("Invalid number of pages " + count);
+        }
+        // heap size is persisted lazily, see swapOut
+        return this.size.getAndAdd((long) count * this.pageLen);
+    }
+    
+    /**
+     * Persist the heap size if it has grown since last persisted.
+     */
+    protected void sync() {
         synchronized(this.repo) {
-            long ptr = this.size;
-            this.size += this.pageLen;
-            this.metaValues.put(IDX_HEAP_SIZE, this.size);
-            this.repo.write(0, this.metaData);
-            return ptr;
+            long current = this.size.get();
+            if(current > this.persisted) {
+                this.persist(current);
+            }
         }
     }
     
+    protected void persist(long size) {
+        this.metaValues.put(IDX_HEAP_SIZE, size);
+        this.repo.write(0, this.metaData);
+        this.persisted = size;
+    }
+    
     protected List<byte[]> swapIn(long addr) {
         synchronized(this.repo) {
-            if(addr + this.pageLen > this.size) {
+            if(addr + this.pageLen > this.size.get()) {
                 throw new IllegalArgumentException("Page " + addr + " is not allocated.");
             }
             byte[][] blocks = new byte[this.pageLen / this.blockLen][this.blockLen];
-            for(int i = 0; i < blocks.length; i++){
-                this.repo.read(addr + i * this.blockLen, blocks[i]);
-            }
+            this.repo.read(addr, blocks);
             if(addr == 0L){
                 Arrays.fill(blocks[0], 0, META_DATA_LEN, (byte) 0x00);
             }
@@ -140,9 +208,14 @@ public class ExpandOnlyHeap implements Heap {
     
     protected void swapOut(long addr, byte[] data) {
         synchronized(this.repo) {
-            if(addr + data.length > this.size) {
+            if(addr + data.length > this.size.get()) {
                 throw new IllegalArgumentException("Block " + addr + " is not allocated.");
             }
+            if(addr + data.length > this.persisted) {
+                // never write beyond the persisted size, otherwise the block may
+                // be allocated again after a crash
+                this.persist(this.size.get());
+            }
             if(addr == 0) {
                 System.arraycopy(this.metaData, 0, data, 0, META_DATA_LEN);
             }
@@ -167,7 +240,8 @@ public class ExpandOnlyHeap implements Heap {
                     + ", found " + initial[1]);
         }
         this.pageLen = pageLen;
-        this.size = buf.get(IDX_HEAP_SIZE);
+        this.size = new AtomicLong(buf.get(IDX_HEAP_SIZE));
+        this.persisted = this.size.get();
         this.metaData = initial;
         this.metaValues = buf;
     }
@@ -176,16 +250,18 @@ public class ExpandOnlyHeap implements Heap {
         this.metaData = new byte[META_DATA_LEN];
         this.metaValues = ByteBuffer.wrap(this.metaData).asLongBuffer();
         this.pageLen = pageLen;
-        this.size = 0L;
+        this.size = new AtomicLong(0L);
+        this.persisted = 0L;
         this.metaValues.put(new long[] {
-            FLAG, pageLen, this.size, Instant.now().getEpochSecond()
+            FLAG, pageLen, this.size.get(), Instant.now().getEpochSecond()
         });
         this.repo.write(0, this.metaData);
     }
 
     private int blockLen;
     private int pageLen;
-    private long size;
+    private AtomicLong size;
+    private long persisted;
     private byte[] metaData;
     private LongBuffer metaValues;
     private Repository repo;
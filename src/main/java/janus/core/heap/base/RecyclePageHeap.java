@@ -1,22 +1,32 @@
 package janus.core.heap.base;
 
-import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-
 import janus.core.heap.Heap;
 import janus.core.heap.Page;
 import janus.core.heap.Session;
+import janus.core.util.LongStack;
 import janus.core.util.SizeOf;
 
+/**
+ * Heap recycling freed pages before expanding its base heap.
+ * 
+ * <p>Freed addresses are cached in a lock-free stack shared by all sessions, which
+ * is spilled to and refilled from a free list on the root page in batches of half
+ * the cache limit. Only spilling and refilling are serialized. When the root page
+ * is full, its content is moved to a freed page chained from the root page.</p>
+ * 
+ * @author Y.K. Chan
+ *
+ */
 public class RecyclePageHeap implements Heap {         
 
     public RecyclePageHeap(Heap base, long root, int cacheLimit) {
+        if(cacheLimit < 1) {
+            throw new IllegalArgumentException("Invalid cache limit " + cacheLimit);
+        }
         this.base = base;
         this.root = root;
         this.cacheLimit = cacheLimit;
+        this.cache = new LongStack();
         this.open(root);
     }
 
@@ -31,7 +41,7 @@ public class RecyclePageHeap implements Heap {
 
             @Override
             public void free(Page page) {
-                freePages(Collections.singletonList(page.address()));
+                freePage(page.address());
             }
 
             @Override
@@ -42,6 +52,7 @@ public class RecyclePageHeap implements Heap {
             @Override
             public void commit() {
                 // rollback not supported
+                session.commit();
             }
 
             @Override
@@ -55,7 +66,11 @@ public class RecyclePageHeap implements Heap {
     @Override
     public void close() throws Exception {
         try(Session sess = this.session){
-            this.flush(sess, root);
+            synchronized(this) {
+                long[] items = new long[this.cache.size()];
+                int num = this.cache.pop(items, 0, items.length);
+                this.flush(sess, this.root, reverse(items, num), num);
+            }
         } finally {
             this.base.close();
         }
@@ -64,16 +79,13 @@ public class RecyclePageHeap implements Heap {
     protected void open(long root) {
         this.session = this.base.newSession();
         try(Page page = this.session.fetch(root)){
-            ByteBuffer header = ByteBuffer.wrap(new byte[HEADER_LEN]);
-            page.read(0, header.array(), 0, HEADER_LEN);
-            
-            if(header.getInt(0) != FLAG) {
+            if(page.getInt(0) != FLAG) {
                 this.init(page);
                 return;
             }
             
-            int count = header.getInt(IDX_COUNT);
-            long next = header.getLong();
+            int count = page.getInt(IDX_COUNT);
+            long next = page.getLong(IDX_NEXT);
             if(count <= 0 && next > 0) {
                 // not gracefully closed
             }
@@ -83,95 +95,138 @@ public class RecyclePageHeap implements Heap {
     }
     
     protected void init(Page page) {
-        byte[] header = new byte[HEADER_LEN];
-        ByteBuffer buf = ByteBuffer.wrap(header);
-        buf.putInt(0, FLAG);
-        buf.putLong(SizeOf.INT.length, -1L);
-        buf.putInt(SizeOf.INT.length + SizeOf.LONG.length, 0);
-        page.write(0, header, 0, header.length);
-        this.cache = new ArrayList<>();
+        page.putInt(0, FLAG);
+        page.putLong(IDX_NEXT, -1L);
+        page.putInt(IDX_COUNT, 0);
         page.commit();
     }
     
-    protected void flush(Session session, long root) {
-        byte[] data = new byte[this.cache.size() * SizeOf.LONG.length];
-        ByteBuffer.wrap(data).asLongBuffer()
-            .put(this.cache.stream().mapToLong(v -> v).toArray());
-        
+    protected void flush(Session session, long root, long[] items, int len) {
         int done = 0;
         try(Page page = session.fetch(root)){
-            ByteBuffer header = ByteBuffer.wrap(new byte[HEADER_LEN]);
-            page.read(0, header.array(), 0, HEADER_LEN);
+            int count = page.getInt(IDX_COUNT);
+            long next = page.getLong(IDX_NEXT);
             int capacity = (page.length() - HEADER_LEN) / SizeOf.LONG.length;
-            while(done < this.cache.size()) {
-                int count = header.getInt(IDX_COUNT);
+            while(done < len) {
                 if(count < capacity) {                   
-                    int num = Math.min(capacity - count, this.cache.size() - done);                    
-                    page.write(HEADER_LEN + count * SizeOf.LONG.length, 
-                            data, done * SizeOf.LONG.length, num * SizeOf.LONG.length);
-                    header.putInt(IDX_COUNT, count + num);                    
+                    int num = Math.min(capacity - count, len - done);                    
+                    page.putLongs(HEADER_LEN + count * SizeOf.LONG.length, items, done, num);
+                    count += num;
                     done += num;
                     continue;
                 }
-                long next = this.cache.get(count++);
-                try(Page nextPage = session.fetch(next)){
+                // root is full, move its content to the next free page
+                long addr = items[done];
+                try(Page nextPage = session.fetch(addr)){
                     byte[] temp = new byte[page.length()];
                     page.read(0, temp, 0, temp.length);
                     nextPage.write(0, temp, 0, temp.length);
-                    header.putInt(IDX_COUNT, 0);
-                    header.putLong(IDX_NEXT, next);
+                    nextPage.putLong(IDX_NEXT, next);
+                    nextPage.putInt(IDX_COUNT, count);
                     nextPage.commit();
                 }
+                count = 0;
+                next = addr;
                 done++;
             }
-            page.write(0, header.array(), 0, HEADER_LEN);
+            page.putLong(IDX_NEXT, next);
+            page.putInt(IDX_COUNT, count);
             page.commit();
         }
-        
-        this.cache.clear();
     }
 
+    /**
+     * Move a batch of free pages from the root page to the cache. When the root page
+     * is empty, the content of the next page is moved back to the root page and the
+     * next page itself is recycled.
+     * @return  Number of pages moved
+     */
     protected int loadCache() {
         try(Page page = this.session.fetch(this.root)){
-            ByteBuffer header = ByteBuffer.wrap(new byte[HEADER_LEN]);
-            page.read(0, header.array(), 0, HEADER_LEN);
-            
-            int count = header.getInt(IDX_COUNT);
-            int limit = Math.min(this.cacheLimit, count);
+            int count = page.getInt(IDX_COUNT);
+            long next = page.getLong(IDX_NEXT);
+            if(count == 0 && next >= 0) {
+                try(Page nextPage = this.session.fetch(next)){
+                    byte[] temp = new byte[page.length()];
+                    nextPage.read(0, temp, 0, temp.length);
+                    page.write(0, temp, 0, temp.length);
+                }
+                page.putInt(0, FLAG);
+                page.commit();
+                this.cache.push(next);
+                return 1;
+            }
+            int limit = Math.min(Math.max(1, this.cacheLimit / 2), count);
             
-            int offset = HEADER_LEN + (count - limit) * SizeOf.LONG.length;
-            byte[] data = new byte[limit * SizeOf.LONG.length];
-            page.read(offset, data, 0, data.length);
+            long[] items = new long[limit];
+            page.getLongs(HEADER_LEN + (count - limit) * SizeOf.LONG.length, items, 0, limit);
             
-            header.putInt(IDX_COUNT, count - limit);
-            page.write(0, header.array(), 0, HEADER_LEN);
+            // removed from the free list before handed out
+            page.putInt(IDX_COUNT, count - limit);
             page.commit();
+            for(long item : items) {
+                this.cache.push(item);
+            }
+            return limit;
         }
-        return this.cache.size();
     }
     
-    protected void freePages(Collection<Long> addresses) {        
-        this.cache.addAll(addresses);
-        if(this.cache.size() > this.cacheLimit){
-            this.flush(session, root);
-            this.cache.clear();
+    protected void freePage(long address) {
+        if(address == this.root) {
+            throw new IllegalArgumentException("Page " + address + " is reserved.");
+        }
+        if(this.cache.push(address) > this.cacheLimit){
+            this.spill();
         }
     }
     
     protected Page pageAlloc() {
-        if(this.cache.isEmpty()) {
-            return this.session.alloc();
+        long addr = this.cache.pop();
+        if(addr < 0) {
+            addr = this.refill();
+        }
+        return addr < 0 ? this.session.alloc() : this.session.fetch(addr);
+    }
+    
+    /**
+     * Move the pages freed last from the cache to the free list on the root page.
+     */
+    protected synchronized void spill() {
+        if(this.cache.size() <= this.cacheLimit) {
+            // spilled by another session
+            return;
+        }
+        long[] items = new long[Math.max(1, this.cacheLimit / 2)];
+        int num = this.cache.pop(items, 0, items.length);
+        this.flush(this.session, this.root, reverse(items, num), num);
+    }
+    
+    /**
+     * Take a free page, refilling the cache from the root page if empty.
+     * @return  Address of free page, or -1 if none
+     */
+    protected synchronized long refill() {
+        long addr = this.cache.pop();
+        while(addr < 0 && this.loadCache() > 0) {
+            addr = this.cache.pop();
+        }
+        return addr;
+    }
+    
+    protected static long[] reverse(long[] items, int len) {
+        for(int i = 0, j = len - 1; i < j; i++, j--) {
+            long temp = items[i];
+            items[i] = items[j];
+            items[j] = temp;
         }
-        long last = this.cache.get(this.cache.size() - 1);
-        this.cache.remove(this.cache.size() - 1);
-        return session.fetch(last);
+        return items;
     }
 
     private Heap base;
     private Session session;
     private long root;
     private int cacheLimit;
-    private List<Long> cache;
+    private LongStack cache;
     
     protected static final int FLAG = -1292463666;        
     
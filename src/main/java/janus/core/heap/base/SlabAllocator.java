@@ -0,0 +1,393 @@
+package janus.core.heap.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import janus.core.heap.Heap;
+import janus.core.heap.Page;
+import janus.core.heap.Session;
+import janus.core.util.SizeOf;
+
+/**
+ * Allocator packing small records into slotted pages of a heap.
+ *
+ * <p>Records are stored in fixed-length slots of the smallest size class fitting
+ * them, and each page holds slots of one size class only. A page keeps a bitmap of
+ * used slots, and pages with free slots of a size class are linked in a list
+ * starting from the root page, so a slot is found without any search across pages.
+ * If the allocator is created to free pages, a page left empty is freed to the heap
+ * unless it is the last page of its list. Otherwise empty pages are kept for reuse.</p>
+ *
+ * <p>A record is identified by the address of its page and its slot in the page,
+ * packed in a long.</p>
+ *
+ * @author Y.K. Chan
+ *
+ */
+public class SlabAllocator implements AutoCloseable {
+
+    public static final int FLAG = 1713326090;
+
+    public static final int PAGE_FLAG = -830166583;
+
+    public static final int MIN_CLASS_LEN = 16;
+
+    public static final int MAX_CLASS_LEN = 0xFFFF;
+
+    public static final int SLOT_BITS = 16;
+
+    public SlabAllocator(Heap base, long root) {
+        this(base, root, null);
+    }
+
+    public SlabAllocator(Heap base, long root, int[] classes) {
+        this(base, root, classes, false);
+    }
+
+    /**
+     * Constructor.
+     * @param base  Heap storing the records
+     * @param root  Address of root page
+     * @param classes  Record lengths of size classes in ascending order, up to 65535 bytes,
+     *                 or null for powers of two from 16 up to a quarter of the root page
+     * @param freePages  True to free empty pages to the heap, which must support freeing pages
+     */
+    public SlabAllocator(Heap base, long root, int[] classes, boolean freePages) {
+        this.base = base;
+        this.session = base.newSession();
+        this.root = root;
+        this.freePages = freePages;
+        this.open(root, classes);
+    }
+
+    public static long address(long id) {
+        return id >>> SLOT_BITS;
+    }
+
+    public static int slot(long id) {
+        return (int) (id & ((1L << SLOT_BITS) - 1));
+    }
+
+    /**
+     * Store a record.
+     * @param record  Record content
+     * @return  Record ID
+     */
+    public synchronized long alloc(byte[] record) {
+        int c = this.sizeClass(record.length);
+        try(Page page = this.partialPage(c)){
+            int capacity = page.getInt(IDX_CAPACITY);
+            int slot = this.freeSlot(page, capacity);
+            this.mark(page, slot, true);
+            int used = page.getInt(IDX_USED) + 1;
+            page.putInt(IDX_USED, used);
+            this.write(page, c, slot, record);
+            if(used == capacity) {
+                this.unlink(page, c);
+            }
+            page.commit();
+            return (page.address() << SLOT_BITS) | slot;
+        }
+    }
+
+    /**
+     * Read a record.
+     * @param id  Record ID
+     * @return  Record content
+     */
+    public synchronized byte[] read(long id) {
+        try(Page page = this.slabPage(id)){
+            int c = page.getInt(IDX_CLASS);
+            int pos = this.position(page, c, slot(id));
+            byte[] record = new byte[page.getShort(pos) & 0xFFFF];
+            page.read(pos + SizeOf.SHORT.length, record, 0, record.length);
+            return record;
+        }
+    }
+
+    /**
+     * Replace the content of a record. The new content must fit in the size class of the record.
+     * @param id  Record ID
+     * @param record  Record content
+     */
+    public synchronized void write(long id, byte[] record) {
+        try(Page page = this.slabPage(id)){
+            int c = page.getInt(IDX_CLASS);
+            if(record.length > this.classes[c]) {
+                throw new IllegalArgumentException("Record of " + record.length
+                        + " bytes does not fit in slot of " + this.classes[c] + " bytes.");
+            }
+            this.write(page, c, slot(id), record);
+            page.commit();
+        }
+    }
+
+    /**
+     * Remove a record.
+     * @param id  Record ID
+     */
+    public synchronized void free(long id) {
+        try(Page page = this.slabPage(id)){
+            int c = page.getInt(IDX_CLASS);
+            this.mark(page, slot(id), false);
+            int used = page.getInt(IDX_USED) - 1;
+            page.putInt(IDX_USED, used);
+            if(used + 1 == page.getInt(IDX_CAPACITY)) {
+                this.link(page, c);
+            }
+            if(used == 0 && this.freePages
+                    && (page.getLong(IDX_PREV) >= 0 || page.getLong(IDX_NEXT) >= 0)) {
+                this.release(page, c);
+                return;
+            }
+            page.commit();
+        }
+    }
+
+    /**
+     * Record lengths of size classes.
+     * @return  Record lengths in ascending order
+     */
+    public int[] sizeClasses() {
+        return this.classes.clone();
+    }
+
+    public synchronized void commit() {
+        this.session.commit();
+    }
+
+    @Override
+    public void close() throws Exception {
+        try(Session sess = this.session){
+            sess.commit();
+        } finally {
+            this.base.close();
+        }
+    }
+
+    protected final void open(long root, int[] classes) {
+        try(Page page = this.session.fetch(root)){
+            if(page.getInt(0) == FLAG) {
+                int count = page.getInt(SizeOf.INT.length);
+                this.classes = new int[count];
+                for(int c = 0; c < count; c++) {
+                    this.classes[c] = page.getInt(this.rootEntry(c));
+                }
+                if(classes != null && !Arrays.equals(classes, this.classes)) {
+                    throw new IllegalArgumentException("Size classes mismatch.");
+                }
+                return;
+            }
+            this.classes = classes == null ? this.defaultClasses(page.length()) : classes.clone();
+            if(this.rootEntry(this.classes.length) > page.length()) {
+                throw new IllegalArgumentException("Too many size classes.");
+            }
+            for(int c = 0; c < this.classes.length; c++) {
+                if(this.classes[c] < 1 || (c > 0 && this.classes[c] <= this.classes[c - 1])) {
+                    throw new IllegalArgumentException("Size classes must be positive and ascending.");
+                }
+                if(this.classes[c] > MAX_CLASS_LEN) {
+                    // record length is prefixed as an unsigned short
+                    throw new IllegalArgumentException("Size class of " + this.classes[c]
+                            + " bytes exceeds maximum of " + MAX_CLASS_LEN + " bytes.");
+                }
+                page.putInt(this.rootEntry(c), this.classes[c]);
+                page.putLong(this.rootEntry(c) + SizeOf.INT.length, -1L);
+            }
+            page.putInt(SizeOf.INT.length, this.classes.length);
+            page.putInt(0, FLAG);
+            page.commit();
+        }
+    }
+
+    protected int[] defaultClasses(int pageLen) {
+        List<Integer> sizes = new ArrayList<>();
+        for(int len = MIN_CLASS_LEN; len <= Math.min(pageLen / 4, MAX_CLASS_LEN); len *= 2) {
+            sizes.add(len);
+        }
+        return sizes.stream().mapToInt(v -> v).toArray();
+    }
+
+    protected int sizeClass(int len) {
+        for(int c = 0; c < this.classes.length; c++) {
+            if(len <= this.classes[c]) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("Record of " + len + " bytes is too large.");
+    }
+
+    /**
+     * Fetch the first page with free slots of a size class, making a new one if none.
+     * @param c  Size class
+     * @return  Page with free slots
+     */
+    protected Page partialPage(int c) {
+        long head;
+        try(Page root = this.session.fetch(this.root)){
+            head = root.getLong(this.rootEntry(c) + SizeOf.INT.length);
+        }
+        if(head >= 0) {
+            return this.session.fetch(head);
+        }
+        Page page = this.session.alloc();
+        int slotLen = this.classes[c] + SizeOf.SHORT.length;
+        int capacity = (page.length() - HEADER_LEN) / slotLen;
+        while(HEADER_LEN + this.bitmapLength(capacity) + capacity * slotLen > page.length()) {
+            capacity--;
+        }
+        if(capacity < 1 || capacity > 1 << SLOT_BITS) {
+            throw new IllegalStateException("Unable to fit slots of " + this.classes[c] + " bytes in page.");
+        }
+        page.putInt(0, PAGE_FLAG);
+        page.putInt(IDX_CLASS, c);
+        page.putInt(IDX_USED, 0);
+        page.putInt(IDX_CAPACITY, capacity);
+        page.putLong(IDX_PREV, -1L);
+        page.putLong(IDX_NEXT, -1L);
+        for(int i = 0; i < this.bitmapLength(capacity); i += SizeOf.LONG.length) {
+            page.putLong(HEADER_LEN + i, 0L);
+        }
+        this.link(page, c);
+        return page;
+    }
+
+    protected Page slabPage(long id) {
+        Page page = this.session.fetch(address(id));
+        if(page.getInt(0) != PAGE_FLAG) {
+            page.close();
+            throw new IllegalArgumentException("Invalid record ID " + id);
+        }
+        int slot = slot(id);
+        if(slot >= page.getInt(IDX_CAPACITY)
+                || (page.getLong(HEADER_LEN + (slot / Long.SIZE) * SizeOf.LONG.length) & (1L << slot)) == 0) {
+            page.close();
+            throw new IllegalArgumentException("Invalid record ID " + id);
+        }
+        return page;
+    }
+
+    protected int freeSlot(Page page, int capacity) {
+        for(int i = 0; i * Long.SIZE < capacity; i++) {
+            long word = page.getLong(HEADER_LEN + i * SizeOf.LONG.length);
+            if(word != -1L) {
+                int slot = i * Long.SIZE + Long.numberOfTrailingZeros(~word);
+                if(slot < capacity) {
+                    return slot;
+                }
+            }
+        }
+        throw new IllegalStateException("No free slot in page " + page.address());
+    }
+
+    protected void mark(Page page, int slot, boolean used) {
+        int pos = HEADER_LEN + (slot / Long.SIZE) * SizeOf.LONG.length;
+        long word = page.getLong(pos);
+        page.putLong(pos, used ? word | (1L << slot) : word & ~(1L << slot));
+    }
+
+    protected void write(Page page, int c, int slot, byte[] record) {
+        int pos = this.position(page, c, slot);
+        page.putShort(pos, (short) record.length);
+        page.write(pos + SizeOf.SHORT.length, record, 0, record.length);
+    }
+
+    protected int position(Page page, int c, int slot) {
+        int capacity = page.getInt(IDX_CAPACITY);
+        return HEADER_LEN + this.bitmapLength(capacity) + slot * (this.classes[c] + SizeOf.SHORT.length);
+    }
+
+    protected int bitmapLength(int capacity) {
+        return ((capacity + Long.SIZE - 1) / Long.SIZE) * SizeOf.LONG.length;
+    }
+
+    /**
+     * Insert a page at the head of the list of pages with free slots.
+     * @param page  Page
+     * @param c  Size class
+     */
+    protected void link(Page page, int c) {
+        try(Page root = this.session.fetch(this.root)){
+            int pos = this.rootEntry(c) + SizeOf.INT.length;
+            long head = root.getLong(pos);
+            if(head >= 0) {
+                try(Page next = this.session.fetch(head)){
+                    next.putLong(IDX_PREV, page.address());
+                    next.commit();
+                }
+            }
+            page.putLong(IDX_PREV, -1L);
+            page.putLong(IDX_NEXT, head);
+            root.putLong(pos, page.address());
+            root.commit();
+        }
+    }
+
+    /**
+     * Remove a page from the list of pages with free slots.
+     * @param page  Page
+     * @param c  Size class
+     */
+    protected void unlink(Page page, int c) {
+        long prev = page.getLong(IDX_PREV);
+        long next = page.getLong(IDX_NEXT);
+        if(prev >= 0) {
+            try(Page p = this.session.fetch(prev)){
+                p.putLong(IDX_NEXT, next);
+                p.commit();
+            }
+        } else {
+            try(Page root = this.session.fetch(this.root)){
+                root.putLong(this.rootEntry(c) + SizeOf.INT.length, next);
+                root.commit();
+            }
+        }
+        if(next >= 0) {
+            try(Page n = this.session.fetch(next)){
+                n.putLong(IDX_PREV, prev);
+                n.commit();
+            }
+        }
+        page.putLong(IDX_PREV, -1L);
+        page.putLong(IDX_NEXT, -1L);
+    }
+
+    /**
+     * Free an empty page to the heap. Records of the page are already invalid as its
+     * bitmap is clear.
+     * @param page  Empty page
+     * @param c  Size class
+     */
+    protected void release(Page page, int c) {
+        this.unlink(page, c);
+        page.commit();
+        this.session.free(page);
+    }
+
+    protected int rootEntry(int c) {
+        return ROOT_HEADER_LEN + c * ROOT_ENTRY_LEN;
+    }
+
+    private Heap base;
+    private Session session;
+    private long root;
+    private int[] classes;
+    private boolean freePages;
+
+    protected static final int ROOT_HEADER_LEN = SizeOf.struct(SizeOf.INT, SizeOf.INT);
+
+    protected static final int ROOT_ENTRY_LEN = SizeOf.struct(SizeOf.INT, SizeOf.LONG);
+
+    protected static final int IDX_CLASS = SizeOf.INT.length;
+
+    protected static final int IDX_USED = 2 * SizeOf.INT.length;
+
+    protected static final int IDX_CAPACITY = 3 * SizeOf.INT.length;
+
+    protected static final int IDX_PREV = 4 * SizeOf.INT.length;
+
+    protected static final int IDX_NEXT = IDX_PREV + SizeOf.LONG.length;
+
+    protected static final int HEADER_LEN = IDX_NEXT + SizeOf.LONG.length;
+}
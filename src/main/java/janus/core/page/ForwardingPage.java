@@ -0,0 +1,94 @@
+package janus.core.page;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Page forwarding every call to another page. Subclasses override only what they
+ * decorate, and still access the base page in place.
+ *
+ * @author Y.K. Chan
+ *
+ */
+public class ForwardingPage implements Page {
+
+    public ForwardingPage(Page base) {
+        this.base = base;
+    }
+
+    @Override
+    public long address() {
+        return this.base.address();
+    }
+
+    @Override
+    public int length() {
+        return this.base.length();
+    }
+
+    @Override
+    public void write(int at, byte[] data, int off, int len) {
+        this.base.write(at, data, off, len);
+    }
+
+    @Override
+    public void read(int at, byte[] data, int off, int len) {
+        this.base.read(at, data, off, len);
+    }
+
+    @Override
+    public ByteBuffer view(int at, int len) {
+        return this.base.view(at, len);
+    }
+
+    @Override
+    public ByteBuffer writableView(int at, int len) {
+        return this.base.writableView(at, len);
+    }
+
+    @Override
+    public short getShort(int at) {
+        return this.base.getShort(at);
+    }
+
+    @Override
+    public void putShort(int at, short value) {
+        this.base.putShort(at, value);
+    }
+
+    @Override
+    public int getInt(int at) {
+        return this.base.getInt(at);
+    }
+
+    @Override
+    public void putInt(int at, int value) {
+        this.base.putInt(at, value);
+    }
+
+    @Override
+    public long getLong(int at) {
+        return this.base.getLong(at);
+    }
+
+    @Override
+    public void putLong(int at, long value) {
+        this.base.putLong(at, value);
+    }
+
+    @Override
+    public void getLongs(int at, long[] values, int off, int len) {
+        this.base.getLongs(at, values, off, len);
+    }
+
+    @Override
+    public void putLongs(int at, long[] values, int off, int len) {
+        this.base.putLongs(at, values, off, len);
+    }
+
+    @Override
+    public void close() {
+        this.base.close();
+    }
+
+    protected final Page base;
+}
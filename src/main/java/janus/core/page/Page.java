@@ -1,5 +1,10 @@
 package janus.core.page;
 
+import java.nio.ByteBuffer;
+
+import janus.core.util.Bytes;
+import janus.core.util.SizeOf;
+
 public interface Page extends AutoCloseable {
     
     public long address();
@@ -20,6 +25,80 @@ public interface Page extends AutoCloseable {
         this.read(at, data, 0, data.length);
     }
     
+    /**
+     * Read-only view over a range of this page. Implementations backed by memory
+     * share it without copying, otherwise the range is copied.
+     * @param at  Start position
+     * @param len  Length of range
+     * @return  Read-only view
+     */
+    public default ByteBuffer view(int at, int len) {
+        return ByteBuffer.wrap(this.read(at, len)).asReadOnlyBuffer();
+    }
+    
+    /**
+     * Writable view over a range of this page. The whole range is marked dirty,
+     * and the view must not be used after the page is closed.
+     * @param at  Start position
+     * @param len  Length of range
+     * @return  Writable view
+     */
+    public default ByteBuffer writableView(int at, int len) {
+        throw new UnsupportedOperationException("Writable view is not supported.");
+    }
+    
+    /*
+     * Big-endian primitive accessors. Implementations backed by memory override 
+     * these to access the page in place without creating garbage.
+     */
+    public default short getShort(int at) {
+        byte[] data = new byte[SizeOf.SHORT.length];
+        this.read(at, data);
+        return Bytes.getShort(data, 0);
+    }
+    
+    public default void putShort(int at, short value) {
+        byte[] data = new byte[SizeOf.SHORT.length];
+        Bytes.putShort(data, 0, value);
+        this.write(at, data);
+    }
+    
+    public default int getInt(int at) {
+        byte[] data = new byte[SizeOf.INT.length];
+        this.read(at, data);
+        return Bytes.getInt(data, 0);
+    }
+    
+    public default void putInt(int at, int value) {
+        byte[] data = new byte[SizeOf.INT.length];
+        Bytes.putInt(data, 0, value);
+        this.write(at, data);
+    }
+    
+    public default long getLong(int at) {
+        byte[] data = new byte[SizeOf.LONG.length];
+        this.read(at, data);
+        return Bytes.getLong(data, 0);
+    }
+    
+    public default void putLong(int at, long value) {
+        byte[] data = new byte[SizeOf.LONG.length];
+        Bytes.putLong(data, 0, value);
+        this.write(at, data);
+    }
+    
+    public default void getLongs(int at, long[] values, int off, int len) {
+        byte[] data = new byte[len * SizeOf.LONG.length];
+        this.read(at, data);
+        Bytes.getLongs(data, 0, values, off, len);
+    }
+    
+    public default void putLongs(int at, long[] values, int off, int len) {
+        byte[] data = new byte[len * SizeOf.LONG.length];
+        Bytes.putLongs(data, 0, values, off, len);
+        this.write(at, data);
+    }
+    
     public void write(int at, byte[] data, int off, int len);
     
     public void read(int at, byte[] data, int off, int len);
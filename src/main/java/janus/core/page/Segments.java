@@ -1,17 +1,40 @@
 package janus.core.page;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.BitSet;
+
+import janus.core.util.Bytes;
+import janus.core.util.SizeOf;
 
 public class Segments implements Page {
 
     public Segments(long addr, byte[] buffer, int segLen, Flush flush) {
+        this(addr, buffer, segLen, flush, false);
+    }
+
+    /**
+     * Constructor.
+     * @param addr  Address of page
+     * @param buffer  Page content
+     * @param segLen  Segment length
+     * @param flush  Callback to write out dirty content
+     * @param ranged  True to flush only the dirty range within each dirty segment,
+     *                false to flush dirty segments as a whole
+     */
+    public Segments(long addr, byte[] buffer, int segLen, Flush flush, boolean ranged) {
         if(buffer == null || buffer.length % segLen > 0) {
             throw new IllegalArgumentException();
         }
         this.buffer = buffer;
         this.addr = addr; 
-        this.dirty = new boolean[buffer.length / segLen];
-        Arrays.fill(this.dirty, false);
+        this.segLen = segLen;
+        this.dirty = new BitSet(buffer.length / segLen);
+        if(ranged) {
+            this.lower = new int[buffer.length / segLen];
+            this.upper = new int[buffer.length / segLen];
+            Arrays.fill(this.lower, Integer.MAX_VALUE);
+        }
         this.flush = flush;
     }
 
@@ -27,35 +50,128 @@ public class Segments implements Page {
 
     @Override
     public void write(int at, byte[] data, int off, int len) {
-        int segLen = this.buffer.length / this.dirty.length;
-        int begin = at / segLen;
-        int end = at + len;
-        for(int i = begin; i * segLen < end; i++) {
-            dirty[i] = true;
-        }
+        this.markDirty(at, len);
         System.arraycopy(data, off, this.buffer, at, len);
     }
 
+    @Override
+    public ByteBuffer view(int at, int len) {
+        return ByteBuffer.wrap(this.buffer, at, len).slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public ByteBuffer writableView(int at, int len) {
+        ByteBuffer view = ByteBuffer.wrap(this.buffer, at, len).slice();
+        this.markDirty(at, len);
+        return view;
+    }
+
     @Override
     public void read(int at, byte[] data, int off, int len) {
         System.arraycopy(this.buffer, at, data, off, len);
     }
+
+    @Override
+    public short getShort(int at) {
+        return Bytes.getShort(this.buffer, at);
+    }
+
+    @Override
+    public void putShort(int at, short value) {
+        this.markDirty(at, SizeOf.SHORT.length);
+        Bytes.putShort(this.buffer, at, value);
+    }
+
+    @Override
+    public int getInt(int at) {
+        return Bytes.getInt(this.buffer, at);
+    }
+
+    @Override
+    public void putInt(int at, int value) {
+        this.markDirty(at, SizeOf.INT.length);
+        Bytes.putInt(this.buffer, at, value);
+    }
+
+    @Override
+    public long getLong(int at) {
+        return Bytes.getLong(this.buffer, at);
+    }
+
+    @Override
+    public void putLong(int at, long value) {
+        this.markDirty(at, SizeOf.LONG.length);
+        Bytes.putLong(this.buffer, at, value);
+    }
+
+    @Override
+    public void getLongs(int at, long[] values, int off, int len) {
+        Bytes.getLongs(this.buffer, at, values, off, len);
+    }
+
+    @Override
+    public void putLongs(int at, long[] values, int off, int len) {
+        this.markDirty(at, len * SizeOf.LONG.length);
+        Bytes.putLongs(this.buffer, at, values, off, len);
+    }
     
+    /**
+     * Write back dirty content, with one call for each run of adjacent dirty ranges.
+     */
     @Override
     public void close() {
-        int segLen = this.buffer.length / this.dirty.length;
-        for(int i = 0; i < this.dirty.length; i++) {
-            if(!this.dirty[i]) {
-                continue;
+        int i = this.dirty.nextSetBit(0);
+        while(i >= 0) {
+            int start = this.lower(i);
+            int end = this.upper(i);
+            int next = i + 1;
+            while(this.dirty.get(next) && end == next * this.segLen && this.lower(next) == end) {
+                end = this.upper(next++);
+            }
+            if(this.lower != null) {
+                Arrays.fill(this.lower, i, next, Integer.MAX_VALUE);
+                Arrays.fill(this.upper, i, next, 0);
             }
-            this.flush.commit(this.address() + i * segLen, this.buffer, i * segLen, segLen);
-            this.dirty[i] = false;
+            this.flush.commit(this.address() + start, this.buffer, start, end - start);
+            i = this.dirty.nextSetBit(next);
+        }
+        this.dirty.clear();
+    }
+
+    /**
+     * Mark a range dirty, to be written back on close.
+     * @param at  Start position
+     * @param len  Length of range
+     */
+    public void markDirty(int at, int len) {
+        if(len <= 0) {
+            return;
+        }
+        int begin = at / this.segLen;
+        int end = (at + len + this.segLen - 1) / this.segLen;
+        this.dirty.set(begin, end);
+        if(this.lower == null) {
+            return;
         }
+        for(int i = begin; i < end; i++) {
+            this.lower[i] = Math.min(this.lower[i], Math.max(at, i * this.segLen));
+            this.upper[i] = Math.max(this.upper[i], Math.min(at + len, (i + 1) * this.segLen));
+        }
+    }
+
+    protected int lower(int seg) {
+        return this.lower == null ? seg * this.segLen : this.lower[seg];
+    }
+
+    protected int upper(int seg) {
+        return this.upper == null ? (seg + 1) * this.segLen : this.upper[seg];
     }
 
     private byte[] buffer;    
     private long addr;
-    private boolean[] dirty;
+    private int segLen;
+    private BitSet dirty;
+    private int[] lower, upper;
     private Flush flush;
     
     @FunctionalInterface
@@ -51,6 +51,33 @@ public class AlignedRepo implements Repository {
         this.base.write(at, buf);
     }
 
+    @Override
+    public void read(long at, byte[][] bufs) {
+        byte[] joined = new byte[Arrays.stream(bufs).mapToInt(b -> b.length).sum()];
+        this.read(at, joined);
+        int pos = 0;
+        for(byte[] buf : bufs) {
+            System.arraycopy(joined, pos, buf, 0, buf.length);
+            pos += buf.length;
+        }
+    }
+
+    @Override
+    public void write(long at, byte[][] bufs) {
+        byte[] joined = new byte[Arrays.stream(bufs).mapToInt(b -> b.length).sum()];
+        int pos = 0;
+        for(byte[] buf : bufs) {
+            System.arraycopy(buf, 0, joined, pos, buf.length);
+            pos += buf.length;
+        }
+        this.write(at, joined);
+    }
+
+    @Override
+    public void commit() {
+        this.base.commit();
+    }
+
     @Override
     public void close() {
         try(Repository repo = this.base){
@@ -4,26 +4,51 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import janus.core.storage.Durability;
+import janus.core.storage.GroupCommit;
+import janus.core.util.Buffers;
 
 public class FileRepo implements Repository {
     
     public static FileRepo of(File file) {
+        return of(file, Durability.SYNC);
+    }
+    
+    public static FileRepo of(File file, Durability durability) {
         try {
-            return new FileRepo(new RandomAccessFile(file, "rwd"));
+            return new FileRepo(new RandomAccessFile(file, durability.mode), durability);
         } catch (FileNotFoundException e) {
             throw new IllegalStateException(e);
         }
     }
 
     protected FileRepo(RandomAccessFile file) {
+        this(file, Durability.SYNC);
+    }
+    
+    protected FileRepo(RandomAccessFile file, Durability durability) {
         this.file = file;
+        this.channel = file.getChannel();
+        this.durability = durability;
+        this.group = new GroupCommit(this::force);
+        if(durability == Durability.PERIODIC) {
+            this.group.schedule(Durability.DEFAULT_PERIOD);
+        }
     }
 
     @Override
     public void read(long at, byte[] buf) {
+        ByteBuffer dest = ByteBuffer.wrap(buf);
         try {
-            this.file.seek(at);
-            this.file.read(buf, 0, buf.length);
+            while(dest.hasRemaining()) {
+                if(this.channel.read(dest, at + dest.position()) < 0) {
+                    // unwritten region
+                    break;
+                }
+            }
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }        
@@ -31,22 +56,83 @@ public class FileRepo implements Repository {
 
     @Override
     public void write(long at, byte[] buf) {
+        ByteBuffer src = ByteBuffer.wrap(buf);
         try {
-            this.file.seek(at);
-            this.file.write(buf, 0, buf.length);
+            while(src.hasRemaining()) {
+                this.channel.write(src, at + src.position());
+            }
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
     }
 
+    @Override
+    public void read(long at, byte[][] bufs) {
+        ByteBuffer[] dests = Buffers.wrap(bufs);
+        // only scattering calls use the channel position
+        synchronized(this) {
+            try {
+                this.channel.position(at);
+                while(Buffers.remaining(dests) > 0) {
+                    if(this.channel.read(dests) < 0) {
+                        // unwritten region
+                        break;
+                    }
+                }
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    @Override
+    public void write(long at, byte[][] bufs) {
+        ByteBuffer[] srcs = Buffers.wrap(bufs);
+        synchronized(this) {
+            try {
+                this.channel.position(at);
+                while(Buffers.remaining(srcs) > 0) {
+                    this.channel.write(srcs);
+                }
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    @Override
+    public void commit() {
+        if(this.durability == Durability.COMMIT) {
+            this.group.commit();
+        }
+    }
+
     @Override
     public void close() {
         try {
-            this.file.close();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            this.group.close();
+            if(this.durability != Durability.SYNC) {
+                this.force();
+            }
+        } finally {
+            try {
+                this.file.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+    
+    protected void force() {
+        try {
+            this.channel.force(false);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
         }
     }
 
     private RandomAccessFile file;
+    private FileChannel channel;
+    private Durability durability;
+    private GroupCommit group;
 }
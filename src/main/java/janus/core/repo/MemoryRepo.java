@@ -24,7 +24,7 @@
  */
 package janus.core.repo;
 
-import java.util.Arrays;
+import janus.core.util.ByteChunks;
 
 /**
  * In memory repository.
@@ -46,24 +46,21 @@ public class MemoryRepo implements Repository {
      * @param array  Backing array
      */
     public MemoryRepo(byte[] array) {
-        this.array = array;
-        this.step = DEFAULT_INIT_STEP;
+        this.array = new ByteChunks(array);
     }
 
     @Override
     public void read(long at, byte[] buf) {
-        int length = at + buf.length > this.array.length 
-                ? this.array.length - (int) at 
-                : buf.length;
+        long length = Math.min(buf.length, this.array.capacity() - at);
         if(length > 0) {
-            System.arraycopy(this.array, (int) at, buf, 0, length);
+            this.array.read(at, buf, 0, (int) length);
         }
     }
 
     @Override
     public void write(long at, byte[] buf) {
-        this.ensureCapacity((int) at + buf.length);
-        System.arraycopy(buf, 0, this.array, (int) at, buf.length);
+        this.ensureCapacity(at + buf.length);
+        this.array.write(at, buf, 0, buf.length);
     }
 
     @Override
@@ -72,37 +69,18 @@ public class MemoryRepo implements Repository {
     }
     
     /**
-     * Ensure have enough capacity to a given target.
+     * Ensure have enough capacity to a given target. Capacity grows by appending
+     * chunks, existing content is never copied.
      * @param target  Target capacity
      */
-    protected void ensureCapacity(int target) {
-        if(this.array.length >= target) {
-            return;
-        }
-        int capacity = this.array.length;
-        while(capacity < target) {
-            capacity += this.step;
-            this.step += 2;
-        }
-        capacity += capacity % DEFAULT_ALIGN == 0 ? 0 : DEFAULT_ALIGN - (capacity % DEFAULT_ALIGN);
-        this.array = Arrays.copyOf(this.array, capacity);
+    protected void ensureCapacity(long target) {
+        this.array.ensureCapacity(target);
     }
 
-    private byte[] array;
-    private int step;
+    private ByteChunks array;
     
     /**
      * Default initial array size
      */
     protected static final int DEFAULT_INIT_LEN = 64;
-    
-    /**
-     * Default initial increase amount.
-     */
-    protected static final int DEFAULT_INIT_STEP = 17;
-    
-    /**
-     * Default value for memory alignment
-     */
-    protected static final int DEFAULT_ALIGN = 8;
 }
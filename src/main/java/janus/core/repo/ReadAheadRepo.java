@@ -0,0 +1,93 @@
+package janus.core.repo;
+
+import java.util.concurrent.Executor;
+
+import janus.core.util.ReadAhead;
+
+/**
+ * Repository prefetching the next windows of data in background when reads
+ * are sequential. Since repositories are not thread-safe, every access to the
+ * base repository, from the caller or in background, is serialized on it.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class ReadAheadRepo implements Repository {
+    
+    /**
+     * Default number of windows to read ahead
+     */
+    public static final int DEFAULT_DEPTH = 8;
+    
+    /**
+     * Constructor.
+     * @param base  Base repository
+     * @param windowLen  Length of each prefetch window
+     */
+    public ReadAheadRepo(Repository base, int windowLen) {
+        this(base, windowLen, DEFAULT_DEPTH, null);
+    }
+    
+    /**
+     * Constructor.
+     * @param base  Base repository
+     * @param windowLen  Length of each prefetch window
+     * @param depth  Maximum number of windows to read ahead
+     * @param executor  Executor for background reads, or null for a dedicated thread
+     */
+    public ReadAheadRepo(Repository base, int windowLen, int depth, Executor executor) {
+        this.base = base;
+        this.readAhead = new ReadAhead(this::readBase, windowLen, depth, executor);
+    }
+
+    @Override
+    public void read(long at, byte[] buf) {
+        this.readAhead.read(at, buf, 0, buf.length);
+    }
+
+    @Override
+    public void write(long at, byte[] buf) {
+        synchronized(this.base) {
+            this.base.write(at, buf);
+            this.readAhead.invalidate(at, buf.length);
+        }
+    }
+
+    @Override
+    public void commit() {
+        synchronized(this.base) {
+            this.base.commit();
+        }
+    }
+
+    @Override
+    public void close() {
+        try(Repository repo = this.base){
+            this.readAhead.close();
+        }
+    }
+    
+    /**
+     * Read from the base repository into part of a buffer.
+     * @param at  Start position
+     * @param buf  Data buffer
+     * @param off  Offset in buffer
+     * @param len  Number of bytes
+     */
+    protected void readBase(long at, byte[] buf, int off, int len) {
+        if(off == 0 && len == buf.length) {
+            synchronized(this.base) {
+                this.base.read(at, buf);
+            }
+            return;
+        }
+        byte[] temp = new byte[len];
+        synchronized(this.base) {
+            this.base.read(at, temp);
+        }
+        System.arraycopy(temp, 0, buf, off, len);
+    }
+
+    private Repository base;
+    private ReadAhead readAhead;
+}
@@ -56,6 +56,42 @@ public interface Repository extends AutoCloseable {
      */
     public void write(long at, byte[] buf);
     
+    /**
+     * Read data starting at the given position into consecutive buffers, scattering
+     * the data in order.
+     * @param at  Start position
+     * @param bufs  Data buffers
+     */
+    public default void read(long at, byte[][] bufs) {
+        long pos = at;
+        for(byte[] buf : bufs) {
+            this.read(pos, buf);
+            pos += buf.length;
+        }
+    }
+    
+    /**
+     * Write data in consecutive buffers starting at the given position, gathering
+     * the data in order.
+     * @param at  Start position
+     * @param bufs  Data buffers
+     */
+    public default void write(long at, byte[][] bufs) {
+        long pos = at;
+        for(byte[] buf : bufs) {
+            this.write(pos, buf);
+            pos += buf.length;
+        }
+    }
+    
+    /**
+     * Make all data written so far durable. Implementations without a durable medium
+     * need not do anything.
+     */
+    public default void commit() {
+        // nothing to force
+    }
+    
     /**
      * Close this repository. 
      * Any operation performed on a closed repository will result in an exception.
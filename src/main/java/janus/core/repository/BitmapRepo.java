@@ -0,0 +1,251 @@
+package janus.core.repository;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import janus.core.page.Page;
+import janus.core.util.SizeOf;
+
+/**
+ * Repository tracking free pages of its base repository in a persistent bitmap, one
+ * bit per page, and always handing out the free page with the lowest address.
+ *
+ * <p>Bitmaps are stored in dedicated pages listed in a directory on the root page,
+ * which also keeps the number of free pages in each bitmap as a summary level. Only
+ * the root page is read on open, and a bitmap page is read when it is first
+ * searched or updated. In memory, each bitmap also keeps the set of its non-zero
+ * words, so that finding a free page does not scan the bitmap.</p>
+ *
+ * <p>A bitmap is written back before a page found in it is handed out, so no page
+ * is handed out twice after a crash, as long as the storage keeps the order of 
+ * writes ({@link janus.core.storage.Durability#SYNC}). Otherwise only the bitmaps
+ * forced by the last commit are safe to trust. Free counts are hints corrected when
+ * a bitmap is read, and pages freed after the last commit may be leaked by a crash.</p>
+ *
+ * @author Y.K. Chan
+ *
+ */
+public class BitmapRepo implements Repository {
+
+    public static final int FLAG = 1376921543;
+
+    public BitmapRepo(Repository repo, long root, int pageLen) {
+        if(pageLen < SizeOf.LONG.length || pageLen % SizeOf.LONG.length != 0) {
+            throw new IllegalArgumentException("Invalid page length " + pageLen);
+        }
+        this.repo = repo;
+        this.root = repo.fetch(root);
+        this.pageLen = pageLen;
+        this.bitsPerMap = (long) pageLen * Byte.SIZE;
+        this.open(this.root);
+    }
+
+    @Override
+    public synchronized Page alloc() {
+        for(int m = this.hasFree.nextSetBit(0); m >= 0; m = this.hasFree.nextSetBit(m + 1)) {
+            Bitmap map = this.bitmap(m);
+            int w = map.nonZero.nextSetBit(0);
+            if(w < 0) {
+                this.count(m, -this.free[m]);
+                continue;
+            }
+            int bit = Long.numberOfTrailingZeros(map.words[w]);
+            map.update(w, map.words[w] & ~(1L << bit));
+            this.count(m, -1);
+
+            // pages freed were written back on free, so the base repository already 
+            // covers them, and forcing is left to commit
+            map.page.close();
+            return this.repo.fetch((m * this.bitsPerMap + w * Long.SIZE + bit) * this.pageLen);
+        }
+        return this.repo.alloc();
+    }
+
+    @Override
+    public synchronized void free(Page page) {
+        long address = page.address();
+        if(address < 0 || address % this.pageLen != 0) {
+            throw new IllegalArgumentException("Invalid page address " + address);
+        }
+        if(address == this.root.address() || this.isBitmap(address)) {
+            throw new IllegalArgumentException("Page " + address + " is reserved.");
+        }
+        page.close();
+
+        long index = address / this.pageLen;
+        int m = Math.toIntExact(index / this.bitsPerMap);
+        while(this.maps.length <= m) {
+            this.expand();
+        }
+        Bitmap map = this.bitmap(m);
+        int bit = (int) (index % this.bitsPerMap);
+        int w = bit / Long.SIZE;
+        long mask = 1L << (bit % Long.SIZE);
+        if((map.words[w] & mask) != 0) {
+            throw new IllegalArgumentException("Page " + address + " is already free.");
+        }
+        map.update(w, map.words[w] | mask);
+        this.count(m, 1);
+    }
+
+    @Override
+    public Page fetch(long address) {
+        return this.repo.fetch(address);
+    }
+
+    @Override
+    public synchronized void commit() {
+        for(Bitmap map : this.loaded) {
+            if(map != null) {
+                map.page.close();
+            }
+        }
+        for(int m = 0; m < this.maps.length; m++) {
+            this.root.putInt(HEADER_LEN + m * ENTRY_LEN + SizeOf.LONG.length, this.free[m]);
+        }
+        this.root.close();
+        this.repo.commit();
+    }
+
+    @Override
+    public void close() throws Exception {
+        try(Repository base = this.repo) {
+            this.commit();
+        }
+    }
+
+    /**
+     * Number of bitmap pages the root page can list.
+     * @return  Maximum number of bitmap pages
+     */
+    public int capacity() {
+        return (this.root.length() - HEADER_LEN) / ENTRY_LEN;
+    }
+
+    protected final void open(Page page) {
+        if(page.getInt(0) != FLAG) {
+            page.putInt(0, FLAG);
+            page.putInt(IDX_PAGE_LEN, this.pageLen);
+            page.putInt(IDX_COUNT, 0);
+            page.close();
+            this.init(0);
+            return;
+        }
+        if(page.getInt(IDX_PAGE_LEN) != this.pageLen) {
+            throw new IllegalArgumentException("Page length mismatch. ("
+                    + "Found " + page.getInt(IDX_PAGE_LEN)
+                    + ", expected " + this.pageLen + ")");
+        }
+        int count = page.getInt(IDX_COUNT);
+        this.init(count);
+        for(int m = 0; m < count; m++) {
+            this.maps[m] = page.getLong(HEADER_LEN + m * ENTRY_LEN);
+            this.free[m] = page.getInt(HEADER_LEN + m * ENTRY_LEN + SizeOf.LONG.length);
+            this.hasFree.set(m, this.free[m] > 0);
+        }
+    }
+
+    protected void init(int count) {
+        this.maps = new long[count];
+        this.free = new int[count];
+        this.loaded = new Bitmap[count];
+        this.hasFree = new BitSet(count);
+    }
+
+    /**
+     * Add a bitmap page for the next range of pages, and list it on the root page.
+     */
+    protected void expand() {
+        int m = this.maps.length;
+        if(m >= this.capacity()) {
+            throw new IllegalStateException("Unable to track more than "
+                    + m * this.bitsPerMap + " pages.");
+        }
+        Page page = this.repo.alloc();
+        page.close();
+
+        this.maps = Arrays.copyOf(this.maps, m + 1);
+        this.free = Arrays.copyOf(this.free, m + 1);
+        this.loaded = Arrays.copyOf(this.loaded, m + 1);
+        this.maps[m] = page.address();
+        this.loaded[m] = new Bitmap(page, new long[this.pageLen / SizeOf.LONG.length]);
+
+        this.root.putLong(HEADER_LEN + m * ENTRY_LEN, page.address());
+        this.root.putInt(HEADER_LEN + m * ENTRY_LEN + SizeOf.LONG.length, 0);
+        this.root.putInt(IDX_COUNT, m + 1);
+        this.repo.commit();
+        this.root.close();
+    }
+
+    protected Bitmap bitmap(int m) {
+        Bitmap map = this.loaded[m];
+        if(map == null) {
+            Page page = this.repo.fetch(this.maps[m]);
+            long[] words = new long[this.pageLen / SizeOf.LONG.length];
+            page.getLongs(0, words, 0, words.length);
+            map = new Bitmap(page, words);
+            this.loaded[m] = map;
+
+            // correct the hint with the actual count
+            int count = 0;
+            for(long word : words) {
+                count += Long.bitCount(word);
+            }
+            this.count(m, count - this.free[m]);
+        }
+        return map;
+    }
+
+    protected void count(int m, int delta) {
+        this.free[m] += delta;
+        this.hasFree.set(m, this.free[m] > 0);
+    }
+
+    protected boolean isBitmap(long address) {
+        for(long map : this.maps) {
+            if(map == address) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Repository repo;
+    private Page root;
+    private int pageLen;
+    private long bitsPerMap;
+    private long[] maps;
+    private int[] free;
+    private Bitmap[] loaded;
+    private BitSet hasFree;
+
+    protected static final int IDX_PAGE_LEN = SizeOf.INT.length;
+
+    protected static final int IDX_COUNT = 2 * SizeOf.INT.length;
+
+    protected static final int HEADER_LEN = SizeOf.struct(SizeOf.INT, SizeOf.INT, SizeOf.INT);
+
+    protected static final int ENTRY_LEN = SizeOf.struct(SizeOf.LONG, SizeOf.INT);
+
+    protected static class Bitmap {
+
+        public Bitmap(Page page, long[] words) {
+            this.page = page;
+            this.words = words;
+            this.nonZero = new BitSet(words.length);
+            for(int i = 0; i < words.length; i++) {
+                this.nonZero.set(i, words[i] != 0);
+            }
+        }
+
+        public void update(int index, long word) {
+            this.words[index] = word;
+            this.nonZero.set(index, word != 0);
+            this.page.putLong(index * SizeOf.LONG.length, word);
+        }
+
+        protected final Page page;
+        protected final long[] words;
+        protected final BitSet nonZero;
+    }
+}
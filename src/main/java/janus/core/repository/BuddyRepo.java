@@ -0,0 +1,332 @@
+package janus.core.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import janus.core.page.Page;
+import janus.core.util.Extent;
+import janus.core.util.SizeOf;
+
+/**
+ * Repository handing out runs of contiguous pages with a buddy system.
+ *
+ * <p>Pages are taken from the base repository in arenas of 2^maxOrder contiguous
+ * pages. A run of n pages is carved from the smallest free block of 2^k pages with
+ * 2^k &gt;= n, splitting larger blocks in halves, and the unused tail of the block is
+ * released at once. Pages are freed one by one, and a free block merges with its
+ * buddy whenever both are free, so runs can be fetched again with one read.</p>
+ *
+ * <p>Free blocks are kept in memory and written to the root page as a snapshot,
+ * before a block taken from a free list is handed out and on commit. The snapshot
+ * written before a block is handed out protects against handing it out again after
+ * a crash only if writes reach the device in order, i.e. with
+ * {@link janus.core.storage.Durability#SYNC}. Free blocks not fitting in the root
+ * page, smallest first, are spilled to a chain of overflow pages taken from the base
+ * repository, which is kept and grown as needed.</p>
+ *
+ * @author Y.K. Chan
+ *
+ */
+public class BuddyRepo implements Repository {
+
+    public static final int FLAG = 1119870734;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BuddyRepo(Repository repo, long root, int pageLen, int maxOrder) {
+        if(maxOrder < 0 || maxOrder > MAX_ORDER) {
+            throw new IllegalArgumentException("Invalid maximum order " + maxOrder);
+        }
+        this.repo = repo;
+        this.root = repo.fetch(root);
+        this.pageLen = pageLen;
+        this.maxOrder = maxOrder;
+        this.arenas = new TreeSet<>();
+        this.chain = new ArrayList<>();
+        this.free = new NavigableSet[maxOrder + 1];
+        for(int k = 0; k <= maxOrder; k++) {
+            this.free[k] = new TreeSet<>();
+        }
+        this.open(this.root);
+    }
+
+    @Override
+    public Page alloc() {
+        return this.alloc(1).page(0);
+    }
+
+    @Override
+    public synchronized Extent<Page> alloc(int count) {
+        if(count < 1 || count > 1 << this.maxOrder) {
+            throw new IllegalArgumentException("Invalid number of pages " + count);
+        }
+        int order = order(count);
+        boolean reused = this.find(order) <= this.maxOrder;
+        long address = this.take(order);
+
+        // release the unused tail in the largest aligned blocks
+        int end = 1 << order;
+        for(int pos = count; pos < end; ) {
+            int k = Integer.numberOfTrailingZeros(pos);
+            while(pos + (1 << k) > end) {
+                k--;
+            }
+            this.release(address + (long) pos * this.pageLen, k);
+            pos += 1 << k;
+        }
+
+        if(reused) {
+            // the block must be off the persistent free lists before handed out
+            this.persist();
+        }
+        return new Extent<>(address, count, this.pageLen, this.repo::fetch);
+    }
+
+    @Override
+    public synchronized void free(Page page) {
+        long address = page.address();
+        Long arena = this.arenas.floor(address);
+        if(arena == null || address >= arena + ((long) this.pageLen << this.maxOrder)
+                || (address - arena) % this.pageLen != 0) {
+            throw new IllegalArgumentException("Page " + address + " is not allocated by buddy system.");
+        }
+        for(int k = 0; k <= this.maxOrder; k++) {
+            long mask = ((long) this.pageLen << k) - 1;
+            if(this.free[k].contains(arena + ((address - arena) & ~mask))) {
+                throw new IllegalArgumentException("Page " + address + " is already free.");
+            }
+        }
+        page.close();
+        this.release(address, 0);
+    }
+
+    @Override
+    public Page fetch(long address) {
+        return this.repo.fetch(address);
+    }
+
+    @Override
+    public List<Page> fetch(long address, int count) {
+        return this.repo.fetch(address, count);
+    }
+
+    @Override
+    public synchronized void commit() {
+        this.persist();
+        this.repo.commit();
+    }
+
+    @Override
+    public void close() throws Exception {
+        try(Repository base = this.repo) {
+            this.commit();
+        }
+    }
+
+    /**
+     * Number of free blocks of 2^order pages.
+     * @param order  Order of block
+     * @return  Number of free blocks
+     */
+    public synchronized int available(int order) {
+        return this.free[order].size();
+    }
+
+    protected final void open(Page page) {
+        if(page.getInt(0) != FLAG) {
+            this.persist();
+            return;
+        }
+        if(page.getInt(IDX_PAGE_LEN) != this.pageLen || page.getInt(IDX_MAX_ORDER) != this.maxOrder) {
+            throw new IllegalArgumentException("Layout mismatch. (Found page length "
+                    + page.getInt(IDX_PAGE_LEN) + " and maximum order " + page.getInt(IDX_MAX_ORDER)
+                    + ", expected " + this.pageLen + " and " + this.maxOrder + ")");
+        }
+        int numArenas = page.getInt(IDX_ARENAS);
+        int pos = HEADER_LEN;
+        for(int i = 0; i < numArenas; i++) {
+            this.arenas.add(page.getLong(pos));
+            pos += SizeOf.LONG.length;
+        }
+        this.read(page, pos, page.getInt(IDX_BLOCKS));
+
+        long next = page.getLong(IDX_NEXT);
+        while(next >= 0) {
+            Page node = this.repo.fetch(next);
+            this.chain.add(node);
+            this.read(node, NODE_HEADER_LEN, node.getInt(IDX_NODE_BLOCKS));
+            next = node.getLong(0);
+        }
+    }
+
+    protected void read(Page page, int start, int numBlocks) {
+        int pos = start;
+        for(int i = 0; i < numBlocks; i++) {
+            this.free[page.getInt(pos + SizeOf.LONG.length)].add(page.getLong(pos));
+            pos += ENTRY_LEN;
+        }
+    }
+
+    /**
+     * Write all arenas and free blocks to the root page, larger blocks first, and
+     * the free blocks not fitting in it to the chain of overflow pages. Overflow 
+     * pages are written before the root page referring to them.
+     */
+    protected void persist() {
+        int start = HEADER_LEN + this.arenas.size() * SizeOf.LONG.length;
+        if(start > this.root.length()) {
+            throw new IllegalStateException("Unable to track more than "
+                    + this.arenas.size() + " arenas.");
+        }
+        int numBlocks = 0;
+        for(NavigableSet<Long> set : this.free) {
+            numBlocks += set.size();
+        }
+        long[] addresses = new long[numBlocks];
+        int[] orders = new int[numBlocks];
+        int n = 0;
+        for(int k = this.maxOrder; k >= 0; k--) {
+            for(long block : this.free[k]) {
+                addresses[n] = block;
+                orders[n++] = k;
+            }
+        }
+
+        int inRoot = Math.min(numBlocks, (this.root.length() - start) / ENTRY_LEN);
+        int perNode = (this.pageLen - NODE_HEADER_LEN) / ENTRY_LEN;
+        while((long) this.chain.size() * perNode < numBlocks - inRoot) {
+            this.chain.add(this.repo.alloc());
+        }
+        // arenas are written when allocated, and overflow pages before the root page,
+        // so the base repository covers them all without forcing, left to commit
+        n = inRoot;
+        for(int i = 0; i < this.chain.size(); i++) {
+            Page node = this.chain.get(i);
+            int len = Math.min(perNode, numBlocks - n);
+            this.write(node, NODE_HEADER_LEN, addresses, orders, n, len);
+            node.putLong(0, i + 1 < this.chain.size() ? this.chain.get(i + 1).address() : -1L);
+            node.putInt(IDX_NODE_BLOCKS, len);
+            node.close();
+            n += len;
+        }
+
+        int pos = HEADER_LEN;
+        for(long arena : this.arenas) {
+            this.root.putLong(pos, arena);
+            pos += SizeOf.LONG.length;
+        }
+        this.write(this.root, pos, addresses, orders, 0, inRoot);
+        this.root.putInt(0, FLAG);
+        this.root.putInt(IDX_PAGE_LEN, this.pageLen);
+        this.root.putInt(IDX_MAX_ORDER, this.maxOrder);
+        this.root.putInt(IDX_ARENAS, this.arenas.size());
+        this.root.putInt(IDX_BLOCKS, inRoot);
+        this.root.putLong(IDX_NEXT, this.chain.isEmpty() ? -1L : this.chain.get(0).address());
+        this.root.close();
+    }
+
+    protected void write(Page page, int start, long[] addresses, int[] orders, int off, int len) {
+        int pos = start;
+        for(int i = off; i < off + len; i++) {
+            page.putLong(pos, addresses[i]);
+            page.putInt(pos + SizeOf.LONG.length, orders[i]);
+            pos += ENTRY_LEN;
+        }
+    }
+
+    /**
+     * Find the smallest order of free blocks available for a block of 2^order pages.
+     * @param order  Order of block
+     * @return  Order of free block, or maxOrder + 1 if a new arena is needed
+     */
+    protected int find(int order) {
+        int k = order;
+        while(k <= this.maxOrder && this.free[k].isEmpty()) {
+            k++;
+        }
+        return k;
+    }
+
+    /**
+     * Take a free block of 2^order pages, splitting a larger block if necessary.
+     * @param order  Order of block
+     * @return  Address of block
+     */
+    protected long take(int order) {
+        int k = this.find(order);
+        long address;
+        if(k > this.maxOrder) {
+            address = this.newArena();
+            k = this.maxOrder;
+        } else {
+            address = this.free[k].pollFirst();
+        }
+        while(k > order) {
+            k--;
+            this.free[k].add(address + ((long) this.pageLen << k));
+        }
+        return address;
+    }
+
+    /**
+     * Return a block of 2^order pages, merging it with its free buddies.
+     * @param address  Address of block
+     * @param order  Order of block
+     */
+    protected void release(long address, int order) {
+        long arena = this.arenas.floor(address);
+        long block = address;
+        int k = order;
+        while(k < this.maxOrder) {
+            long buddy = arena + ((block - arena) ^ ((long) this.pageLen << k));
+            if(!this.free[k].remove(buddy)) {
+                break;
+            }
+            block = Math.min(block, buddy);
+            k++;
+        }
+        this.free[k].add(block);
+    }
+
+    protected long newArena() {
+        Extent<Page> arena = this.repo.alloc(1 << this.maxOrder);
+        if(arena.pageLength() != this.pageLen) {
+            throw new IllegalStateException("Page length mismatch. (Found "
+                    + arena.pageLength() + ", expected " + this.pageLen + ")");
+        }
+        this.arenas.add(arena.address());
+        return arena.address();
+    }
+
+    protected static int order(int count) {
+        return count == 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(count - 1);
+    }
+
+    private Repository repo;
+    private Page root;
+    private int pageLen, maxOrder;
+    private NavigableSet<Long> arenas;
+    private NavigableSet<Long>[] free;
+    private List<Page> chain;
+
+    protected static final int MAX_ORDER = 30;
+
+    protected static final int IDX_PAGE_LEN = SizeOf.INT.length;
+
+    protected static final int IDX_MAX_ORDER = 2 * SizeOf.INT.length;
+
+    protected static final int IDX_ARENAS = 3 * SizeOf.INT.length;
+
+    protected static final int IDX_BLOCKS = 4 * SizeOf.INT.length;
+
+    protected static final int IDX_NEXT = 5 * SizeOf.INT.length;
+
+    protected static final int HEADER_LEN = IDX_NEXT + SizeOf.LONG.length;
+
+    protected static final int ENTRY_LEN = SizeOf.struct(SizeOf.LONG, SizeOf.INT);
+
+    protected static final int IDX_NODE_BLOCKS = SizeOf.LONG.length;
+
+    protected static final int NODE_HEADER_LEN = SizeOf.struct(SizeOf.LONG, SizeOf.INT);
+}
@@ -0,0 +1,158 @@
+package janus.core.repository;
+
+import java.nio.ByteBuffer;
+
+import janus.core.page.Page;
+import janus.core.util.BufferPool;
+import janus.core.util.ClockPolicy;
+import janus.core.util.EvictionPolicy;
+import janus.core.util.Extent;
+
+public class CachedRepo implements Repository {
+    
+    public CachedRepo(Repository base, int capacity) {
+        this(base, capacity, new ClockPolicy(capacity));
+    }
+    
+    public CachedRepo(Repository base, int capacity, EvictionPolicy policy) {
+        this.base = base;
+        // closing a base page writes its dirty segments back
+        this.pool = new BufferPool<>(capacity, Page::close, policy);
+    }
+
+    @Override
+    public Page alloc() {
+        Page page = this.base.alloc();
+        return this.handle(this.pool.put(page.address(), page));
+    }
+
+    @Override
+    public Extent<Page> alloc(int count) {
+        return this.base.alloc(count).map(p -> this.handle(this.pool.put(p.address(), p)));
+    }
+
+    @Override
+    public void free(Page page) {
+        // free the base page instead of the handle, so that its contents not yet 
+        // written back reach the base repository
+        Page cached = this.pool.remove(page.address());
+        this.base.free(cached == null ? page : cached);
+    }
+
+    @Override
+    public Page fetch(long address) {
+        return this.handle(this.pool.pin(address, this.base::fetch));
+    }
+    
+    /**
+     * Write back all dirty pages in cache, then commit the base repository.
+     */
+    @Override
+    public void commit() {
+        this.pool.flush();
+        this.base.commit();
+    }
+    
+    @Override
+    public void close() throws Exception {
+        try(Repository repo = this.base){
+            this.pool.flush();
+        }
+    }
+    
+    protected Page handle(BufferPool.Frame<Page> frame) {
+        Page page = frame.page();
+        return new Page() {
+
+            @Override
+            public long address() {
+                return page.address();
+            }
+
+            @Override
+            public int length() {
+                return page.length();
+            }
+
+            @Override
+            public void write(int at, byte[] data, int off, int len) {
+                page.write(at, data, off, len);
+                frame.markDirty();
+            }
+
+            @Override
+            public void read(int at, byte[] data, int off, int len) {
+                page.read(at, data, off, len);
+            }
+
+            @Override
+            public ByteBuffer view(int at, int len) {
+                return page.view(at, len);
+            }
+
+            @Override
+            public ByteBuffer writableView(int at, int len) {
+                ByteBuffer view = page.writableView(at, len);
+                frame.markDirty();
+                return view;
+            }
+
+            @Override
+            public short getShort(int at) {
+                return page.getShort(at);
+            }
+
+            @Override
+            public void putShort(int at, short value) {
+                page.putShort(at, value);
+                frame.markDirty();
+            }
+
+            @Override
+            public int getInt(int at) {
+                return page.getInt(at);
+            }
+
+            @Override
+            public void putInt(int at, int value) {
+                page.putInt(at, value);
+                frame.markDirty();
+            }
+
+            @Override
+            public long getLong(int at) {
+                return page.getLong(at);
+            }
+
+            @Override
+            public void putLong(int at, long value) {
+                page.putLong(at, value);
+                frame.markDirty();
+            }
+
+            @Override
+            public void getLongs(int at, long[] values, int off, int len) {
+                page.getLongs(at, values, off, len);
+            }
+
+            @Override
+            public void putLongs(int at, long[] values, int off, int len) {
+                page.putLongs(at, values, off, len);
+                frame.markDirty();
+            }
+
+            @Override
+            public void close() {
+                if(!this.closed) {
+                    this.closed = true;
+                    pool.unpin(frame);
+                }
+            }
+            
+            private boolean closed = false;
+        };
+    }
+
+    private Repository base;
+    private BufferPool<Page> pool;
+}
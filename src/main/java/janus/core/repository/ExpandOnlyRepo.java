@@ -1,10 +1,14 @@
 package janus.core.repository;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import janus.core.page.Page;
 import janus.core.page.Segments;
 import janus.core.storage.Storage;
+import janus.core.util.Extent;
 import janus.core.util.SizeOf;
 
 public class ExpandOnlyRepo implements Repository {
@@ -21,15 +25,24 @@ public class ExpandOnlyRepo implements Repository {
     @Override
     public Page alloc() {
         int pageLen = this.pageLength();
-        long address = -1;
-        synchronized(this) {
-            address = this.size;            
-            this.size += pageLen;
-            this.commit();
+        long address = this.size.getAndAdd(pageLen);
+        return this.page(address, new byte[pageLen], true);
+    }
+
+    @Override
+    public Extent<Page> alloc(int count) {
+        if(count < 0) {
+            throw new IllegalArgumentException("Invalid number of pages " + count);
         }
-        return this.offset(
-            new Segments(address, new byte[pageLen], this.blockLen, this.storage::write),
-            address == 0L ? HEADER_LEN : 0);
+        int pageLen = this.pageLength();
+        long address = this.size.getAndAdd((long) count * pageLen);
+        if(count > 0) {
+            // extend the storage over the whole run, so that every page can be
+            // fetched even before written
+            long end = address + (long) count * pageLen;
+            this.flush(end - 1, new byte[1], 0, 1);
+        }
+        return new Extent<>(address, count, pageLen, a -> this.page(a, new byte[pageLen], true));
     }
 
     @Override
@@ -40,28 +53,88 @@ public class ExpandOnlyRepo implements Repository {
     @Override
     public Page fetch(long address) {
         byte[] buf = this.storage.read(address, this.pageLength());
-        return this.offset(new Segments(address, buf, this.blockLen, this.storage::write),
-            address == 0L ? HEADER_LEN : 0);
+        return this.page(address, buf, false);
+    }
+
+    @Override
+    public List<Page> fetch(long address, int count) {
+        if(count < 0) {
+            throw new IllegalArgumentException("Invalid number of pages " + count);
+        }
+        int pageLen = this.pageLength();
+        byte[][] bufs = new byte[count][pageLen];
+        this.storage.read(address, bufs);
+        List<Page> pages = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            pages.add(this.page(address + (long) i * pageLen, bufs[i], false));
+        }
+        return pages;
     }
     
     @Override
     public void close() throws Exception {
-        this.storage.close();
+        try(Storage s = this.storage){
+            this.commit();
+        }
     }       
     
-    protected void commit() {
+    /**
+     * Persist the size of the repository, and force everything written to the device
+     * if the storage forces on commit.
+     */
+    @Override
+    public void commit() {
+        this.sync();
+        this.storage.commit();
+    }
+    
+    /**
+     * Persist the size of the repository if it has grown since last persisted.
+     */
+    protected void sync() {
+        synchronized(this) {
+            long current = this.size.get();
+            if(current > this.persisted) {
+                this.persist(current);
+            }
+        }
+    }
+    
+    protected void persist(long size) {
+        this.storage.write(0, this.header(size));
+        this.persisted = size;
+    }
+    
+    protected byte[] header(long size) {
         ByteBuffer header = ByteBuffer.wrap(new byte[HEADER_LEN]);
         header.putInt(FLAG);
         header.putInt(this.blockLen * this.pageSpan);
-        header.putLong(this.size);
-        this.storage.write(0, header.array());
+        header.putLong(size);
+        return header.array();
+    }
+    
+    protected void flush(long at, byte[] data, int off, int len) {
+        // the persisted size must cover every page written, so that no allocated 
+        // page in storage can be handed out again after a crash
+        if(at + len > this.persisted) {
+            this.sync();
+        }
+        if(at < HEADER_LEN) {
+            synchronized(this) {
+                System.arraycopy(this.header(this.persisted), (int) at, 
+                    data, off, Math.min(len, HEADER_LEN - (int) at));
+                this.storage.write(at, data, off, len);
+            }
+            return;
+        }
+        this.storage.write(at, data, off, len);
     }
     
     protected final void init(int blockLen, int pageSpan) {
         ByteBuffer header = ByteBuffer.wrap(this.storage.read(0, HEADER_LEN));
         if(header.getInt(0) != FLAG) {
-            this.size = 0;
-            this.commit();
+            this.size = new AtomicLong(0L);
+            this.persist(0L);
             return;
         }
         
@@ -71,19 +144,39 @@ public class ExpandOnlyRepo implements Repository {
                     + ", expected " + (blockLen * pageSpan));
         }
         
-        this.size = header.getLong(2 * SizeOf.INT.length);
+        long size = header.getLong(2 * SizeOf.INT.length);
         int pageLen = blockLen * pageSpan;
-        if(this.size % pageLen != 0) {
+        if(size % pageLen != 0) {
             throw new IllegalArgumentException("Invalid repository size. Size "
-                    + this.size
+                    + size
                     + " is not a collection of " + pageLen + " page.");
         }
+        this.size = new AtomicLong(size);
+        this.persisted = size;
     }
     
     protected int pageLength() {
         return this.blockLen * this.pageSpan;
     }
     
+    /**
+     * Create a page over a buffer.
+     * @param address  Address of page
+     * @param buf  Page content
+     * @param fresh  True for a newly allocated page, which is written back as a whole
+     *               to extend the storage even if untouched. Otherwise the page exists 
+     *               in storage and only its dirty bytes are written back.
+     * @return  Page
+     */
+    protected Page page(long address, byte[] buf, boolean fresh) {
+        Segments page = new Segments(address, buf, this.blockLen, this::flush, !fresh);
+        if(fresh) {
+            page.markDirty(0, buf.length);
+        }
+        return this.offset(page,
+            address == 0L ? HEADER_LEN : 0);
+    }
+    
     protected Page offset(Page base, int skip) {
         if(skip == 0) {
             return base;
@@ -102,30 +195,82 @@ public class ExpandOnlyRepo implements Repository {
 
             @Override
             public void write(int at, byte[] data, int off, int len) {
-                if(at < 0 || at >= base.length()) {
-                    throw new IllegalArgumentException();
-                }
-                base.write(at + skip, data, off, len);
+                base.write(this.position(at), data, off, len);
             }
 
             @Override
             public void read(int at, byte[] data, int off, int len) {
-                if(at < 0 || at >= base.length()) {
-                    throw new IllegalArgumentException();
-                }
-                base.read(at + skip, data, off, len);
+                base.read(this.position(at), data, off, len);
+            }
+
+            @Override
+            public ByteBuffer view(int at, int len) {
+                return base.view(this.position(at), len);
+            }
+
+            @Override
+            public ByteBuffer writableView(int at, int len) {
+                return base.writableView(this.position(at), len);
+            }
+
+            @Override
+            public short getShort(int at) {
+                return base.getShort(this.position(at));
+            }
+
+            @Override
+            public void putShort(int at, short value) {
+                base.putShort(this.position(at), value);
+            }
+
+            @Override
+            public int getInt(int at) {
+                return base.getInt(this.position(at));
+            }
+
+            @Override
+            public void putInt(int at, int value) {
+                base.putInt(this.position(at), value);
+            }
+
+            @Override
+            public long getLong(int at) {
+                return base.getLong(this.position(at));
+            }
+
+            @Override
+            public void putLong(int at, long value) {
+                base.putLong(this.position(at), value);
+            }
+
+            @Override
+            public void getLongs(int at, long[] values, int off, int len) {
+                base.getLongs(this.position(at), values, off, len);
+            }
+
+            @Override
+            public void putLongs(int at, long[] values, int off, int len) {
+                base.putLongs(this.position(at), values, off, len);
             }
 
             @Override
             public void close() {
                 base.close();
             }
+
+            private int position(int at) {
+                if(at < 0 || at >= base.length()) {
+                    throw new IllegalArgumentException();
+                }
+                return at + skip;
+            }
             
         };
     }
 
     private Storage storage;
-    private long size;
+    private AtomicLong size;
+    private volatile long persisted;
     private int blockLen, pageSpan;
     
     protected static final int HEADER_LEN = SizeOf.struct(SizeOf.INT, SizeOf.INT, SizeOf.LONG);
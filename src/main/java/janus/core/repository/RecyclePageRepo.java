@@ -1,105 +1,146 @@
 package janus.core.repository;
 
-import java.io.Serializable;
-import java.util.Set;
+import java.util.Arrays;
 
+import janus.core.page.ForwardingPage;
 import janus.core.page.Page;
-import janus.core.util.SizeOf;
+import janus.core.repository.node.ChainedPageSet;
+import janus.core.repository.node.LongSet;
 
-public class RecyclePageRepo implements Repository {    
+/**
+ * Repository recycling freed pages before expanding its base repository.
+ *
+ * <p>Freed addresses are kept in a primitive stack in memory, which is spilled to
+ * and refilled from a persistent free list in batches of half the cache limit. The
+ * free list starts from a root page and chains through the freed pages themselves,
+ * so it holds any number of pages. Recycled pages keep their previous content,
+ * except pages used in the chain.</p>
+ *
+ * <p>A page is removed from the persistent free list before it is handed out, and
+ * the base repository is committed before a page is added. Provided the storage
+ * writes to the device in order, i.e. with {@link janus.core.storage.Durability#SYNC},
+ * a crash may at most leak the freed pages held in memory but never hands out a page
+ * twice. With other durability modes, writes between commits may reach the device
+ * in any order, and the free list is only consistent as of the last commit.</p>
+ *
+ * @author Y.K. Chan
+ *
+ */
+public class RecyclePageRepo implements Repository {
+
+    public RecyclePageRepo(Repository repo, long root, int cacheLimit) {
+        if(cacheLimit < 2) {
+            throw new IllegalArgumentException("Invalid cache limit " + cacheLimit);
+        }
+        this.repo = repo;
+        this.root = repo.fetch(root);
+        this.longSet = this.open(new ForwardingPage(this.root) {
+
+            @Override
+            public void close() {
+                // written back once per batch
+            }
+
+        });
+        this.root.close();
+        this.cacheLimit = cacheLimit;
+        this.cache = new long[cacheLimit];
+        this.count = 0;
+    }
 
     @Override
-    public Page alloc() {
-        return null;
+    public synchronized Page alloc() {
+        if(this.count == 0) {
+            this.refill(this.cacheLimit / 2);
+        }
+        if(this.count == 0) {
+            return this.repo.alloc();
+        }
+        return this.repo.fetch(this.cache[--this.count]);
     }
 
     @Override
     public void free(Page page) {
-        // ...
+        long address = page.address();
+        if(address <= 0 || address == this.root.address()) {
+            throw new IllegalArgumentException("Page " + address + " is reserved.");
+        }
+        page.close();
+        synchronized(this) {
+            if(this.count == this.cache.length) {
+                this.spill(this.cacheLimit / 2);
+            }
+            this.cache[this.count++] = address;
+        }
     }
 
     @Override
     public Page fetch(long address) {
         return this.repo.fetch(address);
     }
-    
+
+    @Override
+    public synchronized void commit() {
+        this.repo.commit();
+    }
+
     @Override
     public void close() throws Exception {
-        try {
-            this.longSet.close();
-        } finally {
-            this.repo.close();
+        try(Repository base = this.repo) {
+            synchronized(this) {
+                this.spill(this.count);
+            }
         }
     }
 
-    private Repository repo; 
-    private LongSet longSet;
-    
-    protected interface LongSet extends AutoCloseable {
-        
-        public boolean isEmpty();
-        
-        public boolean isFull();
-        
-        public void push(long addr);
-        
-        public long pop();
-        
+    protected LongSet open(Page page) {
+        return new ChainedPageSet(this.repo, page);
     }
-    
-    protected static class SingleNodeSet implements LongSet, Serializable {
-        
-        /**
-         * 
-         */
-        public static final long serialVersionUID = 3861068807341562878L;
-        
-        public static final int FLAG = 102360894;
-        
-        public SingleNodeSet(Page page, Set<Long> set) {
-            this.page = page;
-            this.set = set;
-        }
 
-        @Override
-        public boolean isEmpty() {
-            return this.set.isEmpty();
+    /**
+     * Move the oldest freed pages in memory to the persistent free list.
+     * @param num  Number of pages to move
+     */
+    protected void spill(int num) {
+        // the size of base repository must cover every page in the free list
+        this.repo.commit();
+        int done = 0;
+        while(done < num && !this.longSet.isFull()) {
+            this.longSet.push(this.cache[done++]);
         }
+        this.root.close();
 
-        @Override
-        public boolean isFull() {
-            int capacity = (this.page.length() - HEADER_LEN) / SizeOf.LONG.length;
-            return capacity <= this.set.size();
+        System.arraycopy(this.cache, done, this.cache, 0, this.count - done);
+        this.count -= done;
+        if(this.count == this.cache.length) {
+            // free list is full
+            this.cache = Arrays.copyOf(this.cache, 2 * this.cache.length);
         }
+    }
 
-        @Override
-        public void push(long addr) {
-            if(addr <= 0){
-                throw new IllegalArgumentException("Unable to store address " + addr);
-            }
-            if(this.isFull()) {
-                throw new UnsupportedOperationException();
-            }
-            
-            this.set.add(addr);
+    /**
+     * Move pages from the persistent free list to memory. Pages are handed out in
+     * the order they are popped.
+     * @param num  Number of pages to move
+     */
+    protected void refill(int num) {
+        int start = this.count;
+        while(this.count - start < num && !this.longSet.isEmpty()) {
+            this.cache[this.count++] = this.longSet.pop();
         }
+        this.root.close();
 
-        @Override
-        public long pop() {
-            long addr = this.set.iterator().next();
-            this.set.remove(addr);
-            // ...
-            return addr;
+        for(int i = start, j = this.count - 1; i < j; i++, j--) {
+            long temp = this.cache[i];
+            this.cache[i] = this.cache[j];
+            this.cache[j] = temp;
         }
-        
-        @Override
-        public void close() throws Exception {
-            this.page.close();
-        }
-        
-        private Page page;
-        private Set<Long> set; 
-        
-        protected static final int HEADER_LEN = SizeOf.struct(SizeOf.INT, SizeOf.INT);
     }
+
+    private Repository repo;
+    private Page root;
+    private LongSet longSet;
+    private int cacheLimit;
+    private long[] cache;
+    private int count;
 }
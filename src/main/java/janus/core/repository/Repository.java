@@ -1,13 +1,52 @@
 package janus.core.repository;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import janus.core.page.Page;
+import janus.core.util.Extent;
 
 public interface Repository extends AutoCloseable {
 
     public Page alloc();
     
+    /**
+     * Allocate a run of contiguous pages. Page objects are created on request from
+     * the extent returned, as new pages returned by alloc().
+     * @param count  Number of pages
+     * @return  Extent of pages
+     */
+    public default Extent<Page> alloc(int count) {
+        throw new UnsupportedOperationException("Contiguous allocation not supported.");
+    }
+    
     public void free(Page page);
     
     public Page fetch(long address);
     
+    /**
+     * Fetch consecutive pages starting at an address.
+     * @param address  Address of first page
+     * @param count  Number of pages
+     * @return  Pages in order of address
+     */
+    public default List<Page> fetch(long address, int count) {
+        List<Page> pages = new ArrayList<>(count);
+        long next = address;
+        for(int i = 0; i < count; i++) {
+            Page page = this.fetch(next);
+            pages.add(page);
+            next += page.length();
+        }
+        return pages;
+    }
+    
+    /**
+     * Persist the state of this repository, so that pages written so far can be
+     * fetched again after reopening.
+     */
+    public default void commit() {
+        // nothing to persist
+    }
+    
 }
@@ -0,0 +1,132 @@
+package janus.core.repository.node;
+
+import janus.core.page.Page;
+import janus.core.repository.Repository;
+import janus.core.util.SizeOf;
+
+/**
+ * Set of free page addresses spanning a chain of pages, for free lists larger than
+ * a single page.
+ * 
+ * <p>Items are kept on a head page in memory and written to it in place. When the
+ * head page is full, its items are moved to the page of the item pushed, which is
+ * free and becomes the next page in the chain. When the head page is empty, the
+ * items of the next page are moved back and the next page itself is popped. Push
+ * and pop are therefore O(1), with at most one page read or written besides the
+ * head page. Items are popped last pushed first, and duplicates are not detected.</p>
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class ChainedPageSet implements LongSet {
+    
+    public static final int FLAG = 1457735013;
+    
+    /**
+     * Constructor.
+     * @param repo  Repository of pages chained
+     * @param head  Head page
+     */
+    public ChainedPageSet(Repository repo, Page head) {
+        this.repo = repo;
+        this.page = head;
+        this.items = new long[(head.length() - HEADER_LEN) / SizeOf.LONG.length];
+        if(this.items.length < 1) {
+            throw new IllegalArgumentException("Page of " + head.length() + " bytes is too small.");
+        }
+        this.open(head);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.count == 0 && this.next < 0;
+    }
+
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    @Override
+    public void push(long item) {
+        if(item < 0 || item == this.page.address()) {
+            throw new IllegalArgumentException("Invalid item value " + item);
+        }
+        try(Page p = this.page){
+            if(this.count < this.items.length) {
+                this.items[this.count] = item;
+                p.putLong(HEADER_LEN + this.count * SizeOf.LONG.length, item);
+                p.putInt(IDX_COUNT, ++this.count);
+                return;
+            }
+            // head is full, move its items to the free page pushed
+            try(Page node = this.repo.fetch(item)){
+                this.write(node, this.items, this.count, this.next);
+            }
+            this.count = 0;
+            this.next = item;
+            this.write(p, this.items, this.count, this.next);
+        }
+    }
+
+    @Override
+    public long pop() {
+        if(this.isEmpty()) {
+            return -1L;
+        }
+        try(Page p = this.page){
+            if(this.count > 0) {
+                p.putInt(IDX_COUNT, --this.count);
+                return this.items[this.count];
+            }
+            // head is empty, move the items of the next page back and pop it
+            long item = this.next;
+            try(Page node = this.repo.fetch(item)){
+                if(node.getInt(0) != FLAG) {
+                    throw new IllegalStateException("Invalid format.");
+                }
+                this.count = node.getInt(IDX_COUNT);
+                this.next = node.getLong(IDX_NEXT);
+                node.getLongs(HEADER_LEN, this.items, 0, this.count);
+            }
+            this.write(p, this.items, this.count, this.next);
+            return item;
+        }
+    }
+    
+    protected final void open(Page page) {
+        if(page.getInt(0) != FLAG) {
+            this.count = 0;
+            this.next = -1L;
+            try(Page p = page){
+                this.write(p, this.items, this.count, this.next);
+            }
+            return;
+        }
+        this.count = page.getInt(IDX_COUNT);
+        this.next = page.getLong(IDX_NEXT);
+        if(this.count < 0 || this.count > this.items.length) {
+            throw new IllegalStateException("Invalid format.");
+        }
+        page.getLongs(HEADER_LEN, this.items, 0, this.count);
+    }
+    
+    protected void write(Page page, long[] items, int count, long next) {
+        page.putInt(0, FLAG);
+        page.putInt(IDX_COUNT, count);
+        page.putLong(IDX_NEXT, next);
+        page.putLongs(HEADER_LEN, items, 0, count);
+    }
+    
+    private Repository repo;
+    private Page page;
+    private long[] items;
+    private int count;
+    private long next;
+    
+    protected static final int IDX_COUNT = SizeOf.INT.length;
+    
+    protected static final int IDX_NEXT = 2 * SizeOf.INT.length;
+    
+    protected static final int HEADER_LEN = SizeOf.struct(SizeOf.INT, SizeOf.INT, SizeOf.LONG);
+}
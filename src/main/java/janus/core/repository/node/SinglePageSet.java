@@ -1,13 +1,10 @@
 package janus.core.repository.node;
 
 import java.io.Serializable;
-import java.nio.ByteBuffer;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 import janus.core.page.Page;
 import janus.core.util.SizeOf;
+import janus.core.util.SortedLongArray;
 
 public class SinglePageSet implements LongSet, Serializable {
 
@@ -37,10 +34,9 @@ public class SinglePageSet implements LongSet, Serializable {
         if(item <= 0) {
             throw new IllegalArgumentException("Invalid item value " + item);
         }
-        if(this.set.contains(item)) {
+        if(!this.set.add(item)) {
             throw new IllegalArgumentException("Duplicated item " + item);
         }
-        this.set.add(item);
         this.log(item);
     }
 
@@ -49,8 +45,7 @@ public class SinglePageSet implements LongSet, Serializable {
         if(this.isEmpty()) {
             return -1;
         }
-        long item = this.set.first();
-        this.set.remove(item);
+        long item = this.set.pollFirst();
         this.log(-item);
         return item;
     }
@@ -58,46 +53,44 @@ public class SinglePageSet implements LongSet, Serializable {
     protected void log(long entry) {
         int capacity = (page.length() - HEADER_LEN) / SizeOf.LONG.length;
         
-        ByteBuffer header = ByteBuffer.wrap(page.read(0, HEADER_LEN));
-        int count = header.getInt(SizeOf.INT.length);
+        int count = page.getInt(SizeOf.INT.length);
         
         try(Page p = this.page){
-            if(count < capacity) {            
-                header.putInt(0, FLAG).putInt(SizeOf.INT.length, count + 1);
-                p.write(0, header.array());
-                p.write(
-                    HEADER_LEN + count * SizeOf.LONG.length, 
-                    ByteBuffer.wrap(new byte[SizeOf.LONG.length])
-                        .putLong(entry)
-                        .array()
-                );                
+            if(count < capacity && !this.shouldCompact(count + 1)) {            
+                p.putInt(0, FLAG);
+                p.putInt(SizeOf.INT.length, count + 1);
+                p.putLong(HEADER_LEN + count * SizeOf.LONG.length, entry);
                 return;
             }
             
-            header.putInt(0, FLAG).putInt(SizeOf.INT.length, this.set.size());
-            p.write(0, header.array());
-            p.write(
-                HEADER_LEN + count * SizeOf.INT.length, 
-                ByteBuffer.wrap(new byte[SizeOf.LONG.length])
-                    .putLong(entry)                    
-                    .array()
-            );
+            // log is full or mostly obsolete, rewrite it with the live items only
+            long[] items = this.set.toArray();
+            p.putInt(0, FLAG);
+            p.putInt(SizeOf.INT.length, items.length);
+            p.putLongs(HEADER_LEN, items, 0, items.length);
         }
     }
     
-    protected SortedSet<Long> open(Page page) {
-        ByteBuffer header = ByteBuffer.wrap(page.read(0, HEADER_LEN));
-        if(header.getInt(0) != FLAG){
-            header.putInt(0, FLAG).putInt(SizeOf.INT.length, 0);
-            page.write(0, header.array());
-            return new TreeSet<>();
+    /**
+     * Determine if the log should be rewritten as a snapshot of the live items, i.e.
+     * when it is long enough and most of its entries are obsolete.
+     * @param entries  Number of entries in log
+     * @return  True if the log should be rewritten
+     */
+    protected boolean shouldCompact(int entries) {
+        return entries >= MIN_COMPACT_LEN && entries > COMPACT_RATIO * this.set.size();
+    }
+    
+    protected SortedLongArray open(Page page) {
+        if(page.getInt(0) != FLAG){
+            page.putInt(0, FLAG);
+            page.putInt(SizeOf.INT.length, 0);
+            return new SortedLongArray();
         }
-        int count = header.getInt(SizeOf.INT.length);
-        SortedSet<Long> items = new TreeSet<>();
+        int count = page.getInt(SizeOf.INT.length);
+        SortedLongArray items = new SortedLongArray(count);
         long[] entries = new long[count];
-        ByteBuffer.wrap(page.read(HEADER_LEN, count * SizeOf.LONG.length))
-            .asLongBuffer()
-            .get(entries);
+        page.getLongs(HEADER_LEN, entries, 0, count);
         for(long entry : entries) {
             if(entry > 0){
                 items.add(entry);
@@ -111,9 +104,13 @@ public class SinglePageSet implements LongSet, Serializable {
     }
     
     private Page page;
-    private SortedSet<Long> set;
+    private SortedLongArray set;
     
     protected static final int HEADER_LEN = SizeOf.struct(SizeOf.INT, SizeOf.INT);
     
+    protected static final int MIN_COMPACT_LEN = 64;
+    
+    protected static final int COMPACT_RATIO = 4;
+    
     public static final int FLAG = 638879014;
 }
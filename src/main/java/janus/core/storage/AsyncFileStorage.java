@@ -0,0 +1,223 @@
+package janus.core.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AsyncFileStorage implements Storage {
+    
+    public static final int DEFAULT_QUEUE_DEPTH = 32;
+    
+    public static AsyncFileStorage of(File file) {
+        return of(file, Durability.SYNC, DEFAULT_QUEUE_DEPTH);
+    }
+    
+    public static AsyncFileStorage of(File file, Durability durability, int queueDepth) {
+        List<OpenOption> options = new ArrayList<>(Arrays.asList(
+            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE
+        ));
+        if(durability == Durability.SYNC) {
+            options.add(StandardOpenOption.DSYNC);
+        }
+        try {
+            return new AsyncFileStorage(
+                AsynchronousFileChannel.open(file.toPath(), options.toArray(new OpenOption[0])),
+                durability, queueDepth);
+        } catch (IOException e) {
+            throw new UnsupportedOperationException(e);
+        }
+    }
+    
+    protected AsyncFileStorage(AsynchronousFileChannel channel, Durability durability, int queueDepth) {
+        if(queueDepth < 1) {
+            throw new IllegalArgumentException("Invalid queue depth " + queueDepth);
+        }
+        this.channel = channel;
+        this.durability = durability;
+        this.queueDepth = queueDepth;
+        this.permits = new Semaphore(queueDepth);
+        this.closed = new AtomicBoolean(false);
+        this.group = new GroupCommit(this::force);
+        if(durability == Durability.PERIODIC) {
+            this.group.schedule(Durability.DEFAULT_PERIOD);
+        }
+    }
+
+    @Override
+    public void write(long at, byte[] data, int off, int len) {
+        this.join(this.writeAsync(at, data, off, len));
+    }
+
+    @Override
+    public void read(long at, byte[] data, int off, int len) {
+        this.join(this.readAsync(at, data, off, len));
+    }
+
+    @Override
+    public CompletableFuture<Void> writeAsync(long at, byte[] data, int off, int len) {
+        CompletableFuture<Void> future = this.submit();
+        if(!future.isDone()) {
+            this.write(ByteBuffer.wrap(data, off, len), at - off, future);
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> readAsync(long at, byte[] data, int off, int len) {
+        CompletableFuture<Void> future = this.submit();
+        if(!future.isDone()) {
+            this.read(ByteBuffer.wrap(data, off, len), at - off, future);
+        }
+        return future;
+    }
+    
+    @Override
+    public void commit() {
+        if(this.closed.get()) {
+            throw new IllegalStateException("Storage is closed.");
+        }
+        if(this.durability == Durability.COMMIT) {
+            this.group.commit();
+        }
+    }
+    
+    @Override
+    public void close() throws Exception {
+        if(!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+        // wait for all in-flight operations
+        this.permits.acquireUninterruptibly(this.queueDepth);
+        try {
+            this.group.close();
+            if(this.durability != Durability.SYNC) {
+                this.force();
+            }
+        } finally {
+            try {
+                this.channel.close();
+            } finally {
+                // wake up operations waiting for a permit, which fail on the closed flag
+                this.permits.release(this.queueDepth);
+            }
+        }
+    }
+    
+    protected void force() {
+        try {
+            this.channel.force(false);
+        } catch(IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+    
+    protected CompletableFuture<Void> submit() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if(this.closed.get()) {
+            future.completeExceptionally(new IllegalStateException("Storage is closed."));
+            return future;
+        }
+        try {
+            this.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(new IllegalStateException(e));
+            return future;
+        }
+        if(this.closed.get()) {
+            this.permits.release();
+            future.completeExceptionally(new IllegalStateException("Storage is closed."));
+            return future;
+        }
+        future.whenComplete((v, ex) -> this.permits.release());
+        return future;
+    }
+    
+    /**
+     * Write the remaining of the buffer, where base + buffer position is the file position.
+     */
+    protected void write(ByteBuffer buf, long base, CompletableFuture<Void> future) {
+        try {
+            this.channel.write(buf, base + buf.position(), null, new CompletionHandler<Integer, Void>() {
+
+                @Override
+                public void completed(Integer result, Void attachment) {
+                    if(buf.hasRemaining()) {
+                        write(buf, base, future);
+                        return;
+                    }
+                    future.complete(null);
+                }
+
+                @Override
+                public void failed(Throwable exc, Void attachment) {
+                    future.completeExceptionally(exc);
+                }
+                
+            });
+        } catch(RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+    
+    /**
+     * Fill the remaining of the buffer, where base + buffer position is the file position.
+     */
+    protected void read(ByteBuffer buf, long base, CompletableFuture<Void> future) {
+        try {
+            this.channel.read(buf, base + buf.position(), null, new CompletionHandler<Integer, Void>() {
+
+                @Override
+                public void completed(Integer result, Void attachment) {
+                    if(result < 0) {
+                        future.completeExceptionally(
+                            new IllegalStateException("Failed to read partial or all data."));
+                        return;
+                    }
+                    if(buf.hasRemaining()) {
+                        read(buf, base, future);
+                        return;
+                    }
+                    future.complete(null);
+                }
+
+                @Override
+                public void failed(Throwable exc, Void attachment) {
+                    future.completeExceptionally(exc);
+                }
+                
+            });
+        } catch(RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+    
+    protected void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch(CompletionException ex) {
+            if(ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+    
+    private AsynchronousFileChannel channel;
+    private Durability durability;
+    private int queueDepth;
+    private Semaphore permits;
+    private AtomicBoolean closed;
+    private GroupCommit group;
+}
@@ -0,0 +1,130 @@
+package janus.core.storage;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import janus.core.util.Buffers;
+
+public class ChannelStorage implements Storage {
+    
+    public static ChannelStorage of(File file) {
+        return of(file, Durability.SYNC);
+    }
+    
+    public static ChannelStorage of(File file, Durability durability) {
+        try {
+            return new ChannelStorage(new RandomAccessFile(file, durability.mode), durability);
+        } catch (FileNotFoundException e) {
+            throw new UnsupportedOperationException(e);
+        }
+    }
+    
+    protected ChannelStorage(RandomAccessFile file) {
+        this(file, Durability.SYNC);
+    }
+    
+    protected ChannelStorage(RandomAccessFile file, Durability durability) {
+        this.file = file;
+        this.durability = durability;
+        this.group = new GroupCommit(this::force);
+        if(durability == Durability.PERIODIC) {
+            this.group.schedule(Durability.DEFAULT_PERIOD);
+        }
+        this.channel = file.getChannel();
+    }
+
+    @Override
+    public void write(long at, byte[] data, int off, int len) {
+        ByteBuffer buf = ByteBuffer.wrap(data, off, len);
+        try {
+            while(buf.hasRemaining()) {
+                this.channel.write(buf, at + buf.position() - off);
+            }
+        } catch(IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Override
+    public void read(long at, byte[] data, int off, int len) {
+        ByteBuffer buf = ByteBuffer.wrap(data, off, len);
+        try {
+            while(buf.hasRemaining()) {
+                if(this.channel.read(buf, at + buf.position() - off) < 0) {
+                    throw new IllegalStateException("Failed to read partial or all data.");
+                }
+            }
+        } catch(IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+    
+    @Override
+    public void write(long at, byte[][] data) {
+        ByteBuffer[] srcs = Buffers.wrap(data);
+        // only scattering calls use the channel position
+        synchronized(this) {
+            try {
+                this.channel.position(at);
+                while(Buffers.remaining(srcs) > 0) {
+                    this.channel.write(srcs);
+                }
+            } catch(IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    @Override
+    public void read(long at, byte[][] data) {
+        ByteBuffer[] dests = Buffers.wrap(data);
+        synchronized(this) {
+            try {
+                this.channel.position(at);
+                while(Buffers.remaining(dests) > 0) {
+                    if(this.channel.read(dests) < 0) {
+                        throw new IllegalStateException("Failed to read partial or all data.");
+                    }
+                }
+            } catch(IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+    
+    @Override
+    public void commit() {
+        if(this.durability == Durability.COMMIT) {
+            this.group.commit();
+        }
+    }
+    
+    @Override
+    public void close() throws Exception {
+        try {
+            this.group.close();
+            if(this.durability != Durability.SYNC) {
+                this.force();
+            }
+        } finally {
+            this.file.close();
+        }
+    }
+    
+    protected void force() {
+        try {
+            this.file.getChannel().force(false);
+        } catch(IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private RandomAccessFile file;
+    private Durability durability;
+    private GroupCommit group;
+    private FileChannel channel;
+}
@@ -0,0 +1,159 @@
+package janus.core.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Write-behind storage buffering writes in memory. Adjacent or overlapping writes
+ * are merged into a single range, and ranges are written to the base storage in 
+ * address order on commit, on close or when the buffered amount exceeds a threshold.
+ * A range grows in place with spare capacity, so a sequence of appending writes
+ * copies each byte a constant number of times on average.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class CoalescingStorage implements Storage {
+    
+    public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+    
+    public CoalescingStorage(Storage base) {
+        this(base, DEFAULT_THRESHOLD);
+    }
+    
+    public CoalescingStorage(Storage base, int threshold) {
+        if(threshold < 1) {
+            throw new IllegalArgumentException("Invalid threshold " + threshold);
+        }
+        this.base = base;
+        this.threshold = threshold;
+        this.ranges = new TreeMap<>();
+        this.buffered = 0L;
+    }
+
+    @Override
+    public synchronized void write(long at, byte[] data, int off, int len) {
+        if(at < 0) {
+            throw new IllegalArgumentException("Invalid position " + at);
+        }
+        if(len == 0) {
+            return;
+        }
+        long begin = at;
+        long end = at + len;
+        
+        Map.Entry<Long, Range> floor = this.ranges.floorEntry(at);
+        Range target;
+        if(floor != null && floor.getKey() + floor.getValue().length >= at) {
+            begin = floor.getKey();
+            target = floor.getValue();
+            end = Math.max(end, begin + target.length);
+        } else {
+            target = new Range();
+            this.ranges.put(begin, target);
+        }
+        List<Map.Entry<Long, Range>> merging = new ArrayList<>(
+            this.ranges.subMap(begin, false, end, true).entrySet());
+        for(Map.Entry<Long, Range> entry : merging) {
+            end = Math.max(end, entry.getKey() + entry.getValue().length);
+        }
+        
+        // merge following ranges into the first one, which grows in place
+        this.buffered -= target.length;
+        target.extend(Math.toIntExact(end - begin));
+        for(Map.Entry<Long, Range> entry : merging) {
+            Range range = entry.getValue();
+            System.arraycopy(range.data, 0, target.data, (int) (entry.getKey() - begin), range.length);
+            this.ranges.remove(entry.getKey());
+            this.buffered -= range.length;
+        }
+        System.arraycopy(data, off, target.data, (int) (at - begin), len);
+        this.buffered += target.length;
+        
+        if(this.buffered >= this.threshold) {
+            this.flush();
+        }
+    }
+
+    @Override
+    public synchronized void read(long at, byte[] data, int off, int len) {
+        long pos = at;
+        long end = at + len;
+        Map.Entry<Long, Range> floor = this.ranges.floorEntry(at);
+        long from = floor != null && floor.getKey() + floor.getValue().length > at ? floor.getKey() : at;
+        for(Map.Entry<Long, Range> entry : this.ranges.subMap(from, true, end, false).entrySet()) {
+            long start = entry.getKey();
+            if(start > pos) {
+                this.base.read(pos, data, off + (int) (pos - at), (int) (start - pos));
+                pos = start;
+            }
+            int limit = (int) (Math.min(end, start + entry.getValue().length) - pos);
+            System.arraycopy(entry.getValue().data, (int) (pos - start), data, off + (int) (pos - at), limit);
+            pos += limit;
+        }
+        if(pos < end) {
+            this.base.read(pos, data, off + (int) (pos - at), (int) (end - pos));
+        }
+    }
+    
+    @Override
+    public void commit() {
+        synchronized(this) {
+            this.flush();
+        }
+        this.base.commit();
+    }
+    
+    @Override
+    public void close() throws Exception {
+        try(Storage storage = this.base){
+            synchronized(this) {
+                this.flush();
+            }
+        }
+    }
+    
+    public synchronized long buffered() {
+        return this.buffered;
+    }
+    
+    protected void flush() {
+        while(!this.ranges.isEmpty()) {
+            Map.Entry<Long, Range> entry = this.ranges.firstEntry();
+            this.base.write(entry.getKey(), entry.getValue().data, 0, entry.getValue().length);
+            this.ranges.remove(entry.getKey());
+            this.buffered -= entry.getValue().length;
+        }
+    }
+
+    private Storage base;
+    private int threshold;
+    private long buffered;
+    private NavigableMap<Long, Range> ranges;
+    
+    protected static class Range {
+        
+        public Range() {
+            this.data = new byte[0];
+            this.length = 0;
+        }
+        
+        /**
+         * Extend the range, growing its buffer geometrically if necessary.
+         * @param len  Length of range, not shorter than current
+         */
+        public void extend(int len) {
+            if(len > this.data.length) {
+                this.data = Arrays.copyOf(this.data, Math.max(len, 2 * this.data.length));
+            }
+            this.length = len;
+        }
+        
+        protected byte[] data;
+        protected int length;
+    }
+}
@@ -0,0 +1,32 @@
+package janus.core.storage;
+
+public enum Durability {
+    
+    /**
+     * Never force data to the device until closed, left to the operating system.
+     */
+    NONE("rw"),
+    
+    /**
+     * Force data to the device on commit. Concurrent commits are grouped.
+     */
+    COMMIT("rw"),
+    
+    /**
+     * Force data to the device periodically in background.
+     */
+    PERIODIC("rw"),
+    
+    /**
+     * Every write is synchronous.
+     */
+    SYNC("rwd");
+    
+    private Durability(String mode) {
+        this.mode = mode;
+    }
+    
+    public final String mode;
+    
+    public static final long DEFAULT_PERIOD = 1000L;
+}
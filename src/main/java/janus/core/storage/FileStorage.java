@@ -4,19 +4,36 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import janus.core.util.Buffers;
 
 public class FileStorage implements Storage {
     
     public static FileStorage of(File file) {
+        return of(file, Durability.SYNC);
+    }
+    
+    public static FileStorage of(File file, Durability durability) {
         try {
-            return new FileStorage(new RandomAccessFile(file, "rwd"));
+            return new FileStorage(new RandomAccessFile(file, durability.mode), durability);
         } catch (FileNotFoundException e) {
             throw new UnsupportedOperationException(e);
         }
     }
     
     protected FileStorage(RandomAccessFile file) {
+        this(file, Durability.SYNC);
+    }
+    
+    protected FileStorage(RandomAccessFile file, Durability durability) {
         this.file = file;
+        this.durability = durability;
+        this.group = new GroupCommit(this::force);
+        if(durability == Durability.PERIODIC) {
+            this.group.schedule(Durability.DEFAULT_PERIOD);
+        }
     }
 
     @Override
@@ -45,10 +62,66 @@ public class FileStorage implements Storage {
         }
     }
     
+    @Override
+    public void write(long at, byte[][] data) {
+        ByteBuffer[] srcs = Buffers.wrap(data);
+        synchronized(this) {
+            try {
+                FileChannel channel = this.file.getChannel().position(at);
+                while(Buffers.remaining(srcs) > 0) {
+                    channel.write(srcs);
+                }
+            } catch(IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    @Override
+    public void read(long at, byte[][] data) {
+        ByteBuffer[] dests = Buffers.wrap(data);
+        synchronized(this) {
+            try {
+                FileChannel channel = this.file.getChannel().position(at);
+                while(Buffers.remaining(dests) > 0) {
+                    if(channel.read(dests) < 0) {
+                        throw new IllegalStateException("Failed to read partial or all data.");
+                    }
+                }
+            } catch(IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+    
+    @Override
+    public void commit() {
+        if(this.durability == Durability.COMMIT) {
+            this.group.commit();
+        }
+    }
+    
     @Override
     public void close() throws Exception {
-        this.file.close();
+        try {
+            this.group.close();
+            if(this.durability != Durability.SYNC) {
+                this.force();
+            }
+        } finally {
+            this.file.close();
+        }
+    }
+    
+    protected void force() {
+        try {
+            this.file.getChannel().force(false);
+        } catch(IOException ex) {
+            throw new RuntimeException(ex);
+        }
     }
 
-    private RandomAccessFile file;    
+    private RandomAccessFile file;
+    private Durability durability;
+    private GroupCommit group;    
 }
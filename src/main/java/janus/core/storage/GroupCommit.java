@@ -0,0 +1,88 @@
+package janus.core.storage;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Batches the forces of concurrent committers. A committer either waits for a 
+ * force started after its own request, or performs the force itself on behalf of
+ * every committer arrived so far.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class GroupCommit implements AutoCloseable {
+    
+    public GroupCommit(Runnable force) {
+        this.force = force;
+        this.requested = 0L;
+        this.completed = 0L;
+        this.forcing = false;
+    }
+    
+    public void commit() {
+        long target = -1L;
+        synchronized(this) {
+            long ticket = ++this.requested;
+            while(this.forcing && this.completed < ticket) {
+                try {
+                    this.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+            if(this.completed >= ticket) {
+                return;
+            }
+            this.forcing = true;
+            target = this.requested;
+        }
+        
+        boolean done = false;
+        try {
+            this.force.run();
+            done = true;
+        } finally {
+            synchronized(this) {
+                this.forcing = false;
+                if(done) {
+                    this.completed = Math.max(this.completed, target);
+                }
+                this.notifyAll();
+            }
+        }
+    }
+    
+    public void schedule(long period) {
+        synchronized(this) {
+            if(this.timer != null) {
+                throw new IllegalStateException("Already scheduled.");
+            }
+            this.timer = new Timer("group-commit", true);
+        }
+        this.timer.schedule(new TimerTask() {
+
+            @Override
+            public void run() {
+                commit();
+            }
+            
+        }, period, period);
+    }
+    
+    @Override
+    public void close() {
+        synchronized(this) {
+            if(this.timer != null) {
+                this.timer.cancel();
+                this.timer = null;
+            }
+        }
+    }
+    
+    private Runnable force;
+    private long requested, completed;
+    private boolean forcing;
+    private Timer timer;
+}
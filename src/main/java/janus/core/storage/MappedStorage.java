@@ -0,0 +1,240 @@
+package janus.core.storage;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import janus.core.util.SizeOf;
+
+/**
+ * Storage reading and writing through memory-mapped segments of a file.
+ * 
+ * <p>Segments are mapped only up to the end of the file, so the file length always
+ * matches the data written, even after a crash. Writes extending the file go
+ * through the channel. The mapping of a segment is extended once the file has
+ * grown to twice its length, and the range beyond it is accessed through the
+ * channel in the meantime.</p>
+ * 
+ * <p>Mappings and the file are forced to the device according to the durability
+ * mode, on commit by default. With {@link Durability#SYNC}, the segment mapping a
+ * range is forced after each write to it.</p>
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class MappedStorage implements Storage {
+
+    public static final int DEFAULT_SEGMENT_LEN = 1 << 30;
+
+    public static MappedStorage of(File file) {
+        return of(file, DEFAULT_SEGMENT_LEN);
+    }
+
+    public static MappedStorage of(File file, int segLen) {
+        return of(file, segLen, Durability.COMMIT);
+    }
+
+    public static MappedStorage of(File file, int segLen, Durability durability) {
+        try {
+            return new MappedStorage(new RandomAccessFile(file, durability.mode), segLen, durability);
+        } catch (FileNotFoundException e) {
+            throw new UnsupportedOperationException(e);
+        }
+    }
+
+    protected MappedStorage(RandomAccessFile file, int segLen) {
+        this(file, segLen, Durability.COMMIT);
+    }
+
+    protected MappedStorage(RandomAccessFile file, int segLen, Durability durability) {
+        if(segLen < SizeOf.BLOCK.length || segLen % SizeOf.BLOCK.length != 0) {
+            throw new IllegalArgumentException("Invalid segment length " + segLen);
+        }
+        this.file = file;
+        this.channel = file.getChannel();
+        this.segLen = segLen;
+        this.durability = durability;
+        this.group = new GroupCommit(this::force);
+        if(durability == Durability.PERIODIC) {
+            this.group.schedule(Durability.DEFAULT_PERIOD);
+        }
+        this.segments = new MappedByteBuffer[0];
+        try {
+            this.size = new AtomicLong(file.length());
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Override
+    public void write(long at, byte[] data, int off, int len) {
+        if(at < 0) {
+            throw new IllegalArgumentException("Invalid position " + at);
+        }
+        long size = this.size.get();
+        int done = 0;
+        while(done < len) {
+            long pos = at + done;
+            int start = (int) (pos % this.segLen);
+            int limit = Math.min(len - done, this.segLen - start);
+            // mapping never extends the file, data beyond its end goes through the channel
+            MappedByteBuffer seg = pos + limit <= size 
+                ? this.segment((int) (pos / this.segLen), start + limit) 
+                : null;
+            if(seg == null) {
+                this.transfer(ByteBuffer.wrap(data, off + done, limit), pos, true);
+            } else {
+                ByteBuffer buf = seg.duplicate();
+                buf.position(start);
+                buf.put(data, off + done, limit);
+                if(this.durability == Durability.SYNC) {
+                    // channel writes are synchronous by file mode, mapped writes are not
+                    seg.force();
+                }
+            }
+            done += limit;
+        }
+        if(at + len > size) {
+            this.size.accumulateAndGet(at + len, Math::max);
+        }
+    }
+
+    @Override
+    public void read(long at, byte[] data, int off, int len) {
+        if(at < 0 || at + len > this.size.get()) {
+            throw new IllegalStateException("Failed to read partial or all data.");
+        }
+        int done = 0;
+        while(done < len) {
+            long pos = at + done;
+            int start = (int) (pos % this.segLen);
+            int limit = Math.min(len - done, this.segLen - start);
+            MappedByteBuffer seg = this.segment((int) (pos / this.segLen), start + limit);
+            if(seg == null) {
+                this.transfer(ByteBuffer.wrap(data, off + done, limit), pos, false);
+            } else {
+                ByteBuffer buf = seg.duplicate();
+                buf.position(start);
+                buf.get(data, off + done, limit);
+            }
+            done += limit;
+        }
+    }
+
+    @Override
+    public void commit() {
+        if(this.durability == Durability.COMMIT) {
+            this.group.commit();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            this.group.close();
+            // mapped data is left to the operating system until forced
+            this.force();
+            synchronized(this) {
+                this.segments = new MappedByteBuffer[0];
+            }
+        } finally {
+            this.file.close();
+        }
+    }
+
+    /**
+     * Force all mapped segments, and data written through the channel.
+     */
+    protected void force() {
+        for(MappedByteBuffer seg : this.segments) {
+            if(seg != null) {
+                seg.force();
+            }
+        }
+        try {
+            this.channel.force(false);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Get the mapping of a segment covering a length from its start. A mapping too
+     * short is replaced only when the file has grown to at least twice its length or
+     * to the whole segment, so appending to a segment remaps it a logarithmic number
+     * of times.
+     * @param index  Index of segment
+     * @param len  Length required from the start of segment, within the file
+     * @return  Mapping of segment, or null if the range is to be accessed through 
+     *          the channel
+     */
+    protected MappedByteBuffer segment(int index, int len) {
+        MappedByteBuffer[] segs = this.segments;
+        if(index < segs.length && segs[index] != null && segs[index].capacity() >= len) {
+            return segs[index];
+        }
+        synchronized(this) {
+            if(index >= this.segments.length) {
+                this.segments = Arrays.copyOf(this.segments, index + 1);
+            }
+            MappedByteBuffer seg = this.segments[index];
+            int mapped = seg == null ? 0 : seg.capacity();
+            if(mapped >= len) {
+                return seg;
+            }
+            long start = (long) index * this.segLen;
+            int target = (int) Math.min(this.segLen, this.size.get() - start);
+            if(target < len || (target < 2L * mapped && target < this.segLen)) {
+                return null;
+            }
+            seg = this.map(start, target);
+            MappedByteBuffer[] next = this.segments.clone();
+            next[index] = seg;
+            this.segments = next;
+            return seg;
+        }
+    }
+
+    /**
+     * Read or write a range not mapped through the channel.
+     * @param buf  Buffer of data
+     * @param at  Position in file
+     * @param write  True to write, false to read
+     */
+    protected void transfer(ByteBuffer buf, long at, boolean write) {
+        long pos = at;
+        try {
+            while(buf.hasRemaining()) {
+                int n = write ? this.channel.write(buf, pos) : this.channel.read(buf, pos);
+                if(n < 0) {
+                    throw new IllegalStateException("Failed to read partial or all data.");
+                }
+                pos += n;
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    protected MappedByteBuffer map(long start, int len) {
+        try {
+            return this.channel.map(FileChannel.MapMode.READ_WRITE, start, len);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private int segLen;
+    private Durability durability;
+    private GroupCommit group;
+    private AtomicLong size;
+    private volatile MappedByteBuffer[] segments;
+}
@@ -1,34 +1,31 @@
 package janus.core.storage;
 
-import java.util.Arrays;
+import janus.core.util.ByteChunks;
 
 public class MemoryStorage implements Storage {    
     
     public static final int DEFAULT_SIZE = 64;
     
-    protected static final int DEFAULT_STEP = 17;
-    
     public MemoryStorage() {
         this(null);
     }
 
     public MemoryStorage(byte[] memory) {
-        this.memory = memory == null ? new byte[DEFAULT_SIZE] : memory ;
+        this.memory = new ByteChunks(memory == null ? new byte[DEFAULT_SIZE] : memory);
         this.size = 0;
-        this.step = DEFAULT_STEP;
     }
 
     @Override
     public synchronized void write(long at, byte[] data, int off, int len) {
-        this.ensureCapacity((int) at + len);
-        System.arraycopy(data, off, memory, (int) at, len);
-        this.size = Math.max(this.size, (int) at + len);
+        this.ensureCapacity(at + len);
+        this.memory.write(at, data, off, len);
+        this.size = Math.max(this.size, at + len);
     }
 
     @Override
     public synchronized void read(long at, byte[] data, int off, int len) {
         
-        System.arraycopy(memory, (int) at, data, off, len);
+        this.memory.read(at, data, off, len);
     }
     
     @Override
@@ -36,21 +33,16 @@ public class MemoryStorage implements Storage {
         //this.memory = null;
     }
     
-    public byte[] getBytes() {
-        return Arrays.copyOf(this.memory, this.size);
+    public synchronized byte[] getBytes() {
+        byte[] bytes = new byte[Math.toIntExact(this.size)];
+        this.memory.read(0, bytes, 0, bytes.length);
+        return bytes;
     }
     
-    protected void ensureCapacity(int target) {
-        int capacity = this.memory.length;
-        while(capacity < target) {
-            capacity += this.step;
-            this.step += 2;
-        }
-        if(capacity > this.memory.length) {
-            this.memory = Arrays.copyOf(this.memory, capacity);
-        }
+    protected void ensureCapacity(long target) {
+        this.memory.ensureCapacity(target);
     }
 
-    private byte[] memory;
-    private int size, step;
+    private ByteChunks memory;
+    private long size;
 }
@@ -0,0 +1,112 @@
+package janus.core.storage;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OffHeapStorage implements Storage {
+    
+    public static final int DEFAULT_CHUNK_LEN = 1 << 20;
+    
+    public OffHeapStorage() {
+        this(DEFAULT_CHUNK_LEN);
+    }
+    
+    public OffHeapStorage(int chunkLen) {
+        if(chunkLen < 1 || Integer.bitCount(chunkLen) != 1) {
+            throw new IllegalArgumentException("Chunk length " + chunkLen + " is not a power of 2.");
+        }
+        this.shift = Integer.numberOfTrailingZeros(chunkLen);
+        this.mask = chunkLen - 1;
+        this.chunks = new ByteBuffer[DEFAULT_NUM_CHUNKS];
+        this.size = new AtomicLong(0L);
+    }
+
+    @Override
+    public void write(long at, byte[] data, int off, int len) {
+        if(at < 0) {
+            throw new ArrayIndexOutOfBoundsException("Invalid position " + at);
+        }
+        int done = 0;
+        while(done < len) {
+            long pos = at + done;
+            int start = (int) (pos & this.mask);
+            int limit = Math.min(len - done, this.mask + 1 - start);
+            ByteBuffer chunk = this.chunk(pos >>> this.shift, true).duplicate();
+            chunk.position(start);
+            chunk.put(data, off + done, limit);
+            done += limit;
+        }
+        this.size.accumulateAndGet(at + len, Math::max);
+    }
+
+    @Override
+    public void read(long at, byte[] data, int off, int len) {
+        if(at < 0 || at + len > this.size.get()) {
+            throw new ArrayIndexOutOfBoundsException("Range [" + at + "," + (at + len) 
+                + ") is out of bound " + this.size.get());
+        }
+        int done = 0;
+        while(done < len) {
+            long pos = at + done;
+            int start = (int) (pos & this.mask);
+            int limit = Math.min(len - done, this.mask + 1 - start);
+            ByteBuffer chunk = this.chunk(pos >>> this.shift, false);
+            if(chunk == null) {
+                // never written
+                Arrays.fill(data, off + done, off + done + limit, (byte) 0);
+            } else {
+                chunk = chunk.duplicate();
+                chunk.position(start);
+                chunk.get(data, off + done, limit);
+            }
+            done += limit;
+        }
+    }
+    
+    @Override
+    public void close() throws Exception {
+        synchronized(this) {
+            // direct memory is released when the chunks are collected
+            this.chunks = new ByteBuffer[0];
+        }
+    }
+    
+    public long size() {
+        return this.size.get();
+    }
+    
+    protected ByteBuffer chunk(long index, boolean create) {
+        if(index >= Integer.MAX_VALUE) {
+            throw new ArrayIndexOutOfBoundsException("Chunk " + index + " is out of bound.");
+        }
+        ByteBuffer[] array = this.chunks;
+        if(index < array.length && (array[(int) index] != null || !create)) {
+            return array[(int) index];
+        }
+        if(!create) {
+            return null;
+        }
+        synchronized(this) {
+            array = this.chunks;
+            if(index >= array.length) {
+                int len = array.length;
+                while(len <= index) {
+                    len = Math.max(1, Math.min(2 * len, Integer.MAX_VALUE - 1));
+                }
+                array = Arrays.copyOf(array, len);
+            }
+            if(array[(int) index] == null) {
+                array[(int) index] = ByteBuffer.allocateDirect(this.mask + 1);
+            }
+            this.chunks = array;
+            return array[(int) index];
+        }
+    }
+
+    private int shift, mask;
+    private AtomicLong size;
+    private volatile ByteBuffer[] chunks;
+    
+    protected static final int DEFAULT_NUM_CHUNKS = 16;
+}
@@ -0,0 +1,45 @@
+package janus.core.storage;
+
+import java.util.concurrent.Executor;
+
+import janus.core.util.ReadAhead;
+
+public class ReadAheadStorage implements Storage {
+    
+    public static final int DEFAULT_DEPTH = 8;
+    
+    public ReadAheadStorage(Storage base, int windowLen) {
+        this(base, windowLen, DEFAULT_DEPTH, null);
+    }
+    
+    public ReadAheadStorage(Storage base, int windowLen, int depth, Executor executor) {
+        this.base = base;
+        this.readAhead = new ReadAhead(base::read, windowLen, depth, executor);
+    }
+
+    @Override
+    public void write(long at, byte[] data, int off, int len) {
+        this.base.write(at, data, off, len);
+        this.readAhead.invalidate(at, len);
+    }
+
+    @Override
+    public void read(long at, byte[] data, int off, int len) {
+        this.readAhead.read(at, data, off, len);
+    }
+    
+    @Override
+    public void commit() {
+        this.base.commit();
+    }
+    
+    @Override
+    public void close() throws Exception {
+        try(Storage storage = this.base){
+            this.readAhead.close();
+        }
+    }
+
+    private Storage base;
+    private ReadAhead readAhead;
+}
@@ -1,5 +1,7 @@
 package janus.core.storage;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface Storage extends AutoCloseable {    
     
     public default void write(long at, byte[] data) {
@@ -16,8 +18,59 @@ public interface Storage extends AutoCloseable {
         this.read(at, data, 0, data.length);
     }
     
+    public default void write(long at, byte[][] data) {
+        long pos = at;
+        for(byte[] d : data) {
+            this.write(pos, d);
+            pos += d.length;
+        }
+    }
+    
+    public default void read(long at, byte[][] data) {
+        long pos = at;
+        for(byte[] d : data) {
+            this.read(pos, d);
+            pos += d.length;
+        }
+    }
+    
     public void write(long at, byte[] data, int off, int len);
     
     public void read(long at, byte[] data, int off, int len);
+    
+    public default CompletableFuture<Void> writeAsync(long at, byte[] data) {
+        return this.writeAsync(at, data, 0, data.length);
+    }
+    
+    public default CompletableFuture<byte[]> readAsync(long at, int len) {
+        byte[] data = new byte[len];
+        return this.readAsync(at, data, 0, len).thenApply(v -> data);
+    }
+    
+    public default CompletableFuture<Void> writeAsync(long at, byte[] data, int off, int len) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            this.write(at, data, off, len);
+            future.complete(null);
+        } catch(RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+    
+    public default CompletableFuture<Void> readAsync(long at, byte[] data, int off, int len) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            this.read(at, data, off, len);
+            future.complete(null);
+        } catch(RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+    
+    public default void commit() {
+        // nothing to force
+    }
 
 }
@@ -0,0 +1,191 @@
+package janus.core.storage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import janus.core.util.SizeOf;
+
+/**
+ * Storage striping the address space across a number of devices in round robin
+ * with a fixed stripe length. A transfer spanning many stripes is issued as one
+ * asynchronous operation per stripe, thus runs in parallel when the devices 
+ * support asynchronous I/O. For devices completing operations on the caller 
+ * thread, an executor can be given instead, which runs the pieces of each device
+ * as one task, so different devices transfer in parallel.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class StripedStorage implements Storage {
+    
+    public static final int DEFAULT_STRIPE_LEN = 16 * SizeOf.BLOCK.length;
+    
+    public static StripedStorage of(List<File> files) {
+        return of(files, DEFAULT_STRIPE_LEN);
+    }
+    
+    public static StripedStorage of(List<File> files, int stripeLen) {
+        return new StripedStorage(
+            files.stream().map(AsyncFileStorage::of).collect(Collectors.toList()), 
+            stripeLen);
+    }
+    
+    public StripedStorage(List<? extends Storage> devices, int stripeLen) {
+        this(devices, stripeLen, null);
+    }
+    
+    /**
+     * Constructor.
+     * @param devices  Devices to stripe across
+     * @param stripeLen  Length of stripe
+     * @param executor  Executor running the pieces of each device, or null to issue 
+     *                  them to the devices asynchronously
+     */
+    public StripedStorage(List<? extends Storage> devices, int stripeLen, Executor executor) {
+        if(devices.isEmpty()) {
+            throw new IllegalArgumentException("No device to stripe across.");
+        }
+        if(stripeLen < SizeOf.BLOCK.length || stripeLen % SizeOf.BLOCK.length != 0) {
+            throw new IllegalArgumentException("Stripe length " + stripeLen 
+                + " is not a multiple of " + SizeOf.BLOCK.length);
+        }
+        this.devices = Collections.unmodifiableList(new ArrayList<>(devices));
+        this.stripeLen = stripeLen;
+        this.executor = executor;
+    }
+
+    @Override
+    public void write(long at, byte[] data, int off, int len) {
+        this.join(this.writeAsync(at, data, off, len));
+    }
+
+    @Override
+    public void read(long at, byte[] data, int off, int len) {
+        this.join(this.readAsync(at, data, off, len));
+    }
+
+    @Override
+    public CompletableFuture<Void> writeAsync(long at, byte[] data, int off, int len) {
+        return this.stripe(at, len, (device, pos, done, limit) -> 
+            device.writeAsync(pos, data, off + done, limit));
+    }
+
+    @Override
+    public CompletableFuture<Void> readAsync(long at, byte[] data, int off, int len) {
+        return this.stripe(at, len, (device, pos, done, limit) -> 
+            device.readAsync(pos, data, off + done, limit));
+    }
+    
+    @Override
+    public void commit() {
+        this.devices.parallelStream().forEach(Storage::commit);
+    }
+    
+    @Override
+    public void close() throws Exception {
+        Exception error = null;
+        for(Storage device : this.devices) {
+            try {
+                device.close();
+            } catch(Exception ex) {
+                if(error == null) {
+                    error = ex;
+                } else {
+                    error.addSuppressed(ex);
+                }
+            }
+        }
+        if(error != null) {
+            throw error;
+        }
+    }
+    
+    /**
+     * Split a transfer into pieces within stripes, and issue them to the devices.
+     * @param at  Position of transfer
+     * @param len  Length of transfer
+     * @param transfer  Transfer of a piece
+     * @return  Future completed when all pieces are done
+     */
+    protected CompletableFuture<Void> stripe(long at, int len, Transfer transfer) {
+        if(at < 0) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalArgumentException("Invalid position " + at));
+            return future;
+        }
+        List<CompletableFuture<Void>> pieces = new ArrayList<>();
+        List<List<Runnable>> tasks = new ArrayList<>(Collections.nCopies(this.devices.size(), null));
+        int done = 0;
+        while(done < len) {
+            long pos = at + done;
+            int limit = Math.min(len - done, this.stripeLen - (int) (pos % this.stripeLen));
+            Storage device = this.device(pos);
+            long offset = this.offset(pos);
+            int start = done;
+            if(this.executor == null) {
+                pieces.add(transfer.apply(device, offset, start, limit));
+            } else {
+                int index = this.index(pos);
+                if(tasks.get(index) == null) {
+                    tasks.set(index, new ArrayList<>());
+                }
+                tasks.get(index).add(() -> transfer.apply(device, offset, start, limit).join());
+            }
+            done += limit;
+        }
+        for(List<Runnable> task : tasks) {
+            if(task != null) {
+                pieces.add(CompletableFuture.runAsync(() -> task.forEach(Runnable::run), this.executor));
+            }
+        }
+        return CompletableFuture.allOf(pieces.toArray(new CompletableFuture<?>[0]));
+    }
+    
+    protected int index(long pos) {
+        return (int) ((pos / this.stripeLen) % this.devices.size());
+    }
+    
+    protected Storage device(long pos) {
+        return this.devices.get(this.index(pos));
+    }
+    
+    protected long offset(long pos) {
+        long stripe = pos / this.stripeLen;
+        return (stripe / this.devices.size()) * this.stripeLen + pos % this.stripeLen;
+    }
+    
+    protected void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch(CompletionException ex) {
+            if(ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    private List<Storage> devices;
+    private int stripeLen;
+    private Executor executor;
+    
+    @FunctionalInterface
+    protected interface Transfer {
+        
+        /**
+         * Issue a piece of a transfer to a device.
+         * @param device  Device
+         * @param pos  Position in device
+         * @param done  Offset of piece in the transfer
+         * @param len  Length of piece
+         * @return  Future completed when the piece is done
+         */
+        public CompletableFuture<Void> apply(Storage device, long pos, int done, int len);
+    }
+}
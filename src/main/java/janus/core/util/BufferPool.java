@@ -0,0 +1,196 @@
+package janus.core.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded pool of pages keyed by address. A page is pinned while in use and
+ * can only be evicted when no longer pinned. Victims are chosen by an eviction
+ * policy, CLOCK by default, and dirty pages are written back on eviction.
+ * 
+ * @author Y.K. Chan
+ *
+ * @param <T>  Type of pages
+ */
+public class BufferPool<T> {
+    
+    public BufferPool(int capacity, Consumer<T> writeBack) {
+        this(capacity, writeBack, new ClockPolicy(capacity));
+    }
+    
+    public BufferPool(int capacity, Consumer<T> writeBack, EvictionPolicy policy) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity);
+        }
+        this.capacity = capacity;
+        this.writeBack = writeBack;
+        this.policy = policy;
+        this.frames = new HashMap<>();
+    }
+    
+    /**
+     * Pin the page at an address, loading it on miss.
+     * @param address  Page address
+     * @param loader  Page loader
+     * @return  Pinned frame
+     */
+    public Frame<T> pin(long address, LongFunction<T> loader) {
+        Frame<T> frame = null;
+        boolean miss = false;
+        synchronized(this) {
+            frame = this.frames.get(address);
+            if(frame == null) {
+                frame = this.admit(address);
+                miss = true;
+            } else {
+                this.policy.access(address);
+            }
+            frame.pins++;
+        }
+        if(miss) {
+            try {
+                frame.page.complete(loader.apply(address));
+            } catch(RuntimeException ex) {
+                synchronized(this) {
+                    this.discard(frame);
+                }
+                frame.page.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            frame.page.join();
+        } catch(CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException 
+                ? (RuntimeException) ex.getCause() 
+                : ex;
+        }
+        return frame;
+    }
+    
+    /**
+     * Put a newly created page in the pool as pinned.
+     * @param address  Page address
+     * @param page  Page
+     * @return  Pinned frame
+     */
+    public Frame<T> put(long address, T page) {
+        synchronized(this) {
+            if(this.frames.containsKey(address)) {
+                throw new IllegalStateException("Page " + address + " already exists.");
+            }
+            Frame<T> frame = this.admit(address);
+            frame.page.complete(page);
+            frame.pins++;
+            frame.dirty = true;
+            return frame;
+        }
+    }
+    
+    public synchronized void unpin(Frame<T> frame) {
+        if(frame.pins <= 0) {
+            throw new IllegalStateException("Page " + frame.address + " is not pinned.");
+        }
+        frame.pins--;
+    }
+    
+    /**
+     * Drop a page from the pool without writing it back.
+     * @param address  Page address
+     * @return  Page dropped, or null if not in pool or not loaded
+     */
+    public synchronized T remove(long address) {
+        Frame<T> frame = this.frames.get(address);
+        if(frame == null) {
+            return null;
+        }
+        this.discard(frame);
+        return frame.page.isCompletedExceptionally() ? null : frame.page.getNow(null);
+    }
+    
+    /**
+     * Write back all dirty pages.
+     */
+    public synchronized void flush() {
+        for(Frame<T> frame : this.frames.values()) {
+            if(frame.dirty && frame.page.isDone() && !frame.page.isCompletedExceptionally()) {
+                frame.dirty = false;
+                this.writeBack.accept(frame.page.join());
+            }
+        }
+    }
+    
+    public synchronized int size() {
+        return this.frames.size();
+    }
+    
+    public synchronized boolean contains(long address) {
+        return this.frames.containsKey(address);
+    }
+    
+    protected Frame<T> admit(long address) {
+        if(this.frames.size() >= this.capacity) {
+            this.evict();
+        }
+        Frame<T> frame = new Frame<>(address);
+        this.frames.put(address, frame);
+        this.policy.insert(address);
+        return frame;
+    }
+    
+    protected void evict() {
+        long victim = -1L;
+        try {
+            victim = this.policy.victim(a -> {
+                Frame<T> f = this.frames.get(a);
+                return f.pins == 0 && f.page.isDone();
+            });
+        } catch(IllegalStateException ex) {
+            throw new IllegalStateException("All " + this.capacity + " pages are pinned.", ex);
+        }
+        Frame<T> frame = this.frames.get(victim);
+        if(frame.dirty) {
+            this.writeBack.accept(frame.page.join());
+        }
+        this.discard(frame);
+    }
+    
+    protected void discard(Frame<T> frame) {
+        this.frames.remove(frame.address);
+        this.policy.remove(frame.address);
+    }
+
+    private int capacity;
+    private Map<Long, Frame<T>> frames;
+    private EvictionPolicy policy;
+    private Consumer<T> writeBack;
+    
+    public static class Frame<T> {
+        
+        protected Frame(long address) {
+            this.address = address;
+            this.page = new CompletableFuture<>();
+        }
+        
+        public long address() {
+            return this.address;
+        }
+        
+        public T page() {
+            return this.page.join();
+        }
+        
+        public void markDirty() {
+            this.dirty = true;
+        }
+        
+        private long address;
+        private int pins;
+        private volatile boolean dirty;
+        private CompletableFuture<T> page;
+    }
+}
@@ -0,0 +1,43 @@
+package janus.core.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Helpers for scattering and gathering I/O over arrays of byte buffers.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public final class Buffers {
+    
+    private Buffers() {
+        // no instance
+    }
+    
+    /**
+     * Wrap each array in a buffer.
+     * @param data  Arrays of bytes
+     * @return  Buffers of arrays
+     */
+    public static ByteBuffer[] wrap(byte[][] data) {
+        ByteBuffer[] bufs = new ByteBuffer[data.length];
+        for(int i = 0; i < data.length; i++) {
+            bufs[i] = ByteBuffer.wrap(data[i]);
+        }
+        return bufs;
+    }
+    
+    /**
+     * Total number of bytes remaining in buffers. Transfers loop on this instead of 
+     * the last buffer, which may be empty.
+     * @param bufs  Buffers
+     * @return  Number of bytes remaining
+     */
+    public static long remaining(ByteBuffer[] bufs) {
+        long total = 0L;
+        for(ByteBuffer buf : bufs) {
+            total += buf.remaining();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,95 @@
+package janus.core.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable byte store made of a head array followed by fixed-length chunks. 
+ * Growth appends chunks and never copies existing content.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class ByteChunks {
+    
+    public static final int DEFAULT_CHUNK_LEN = 64 * 1024;
+    
+    public ByteChunks(byte[] head) {
+        this(head, DEFAULT_CHUNK_LEN);
+    }
+    
+    public ByteChunks(byte[] head, int chunkLen) {
+        if(chunkLen < 1) {
+            throw new IllegalArgumentException("Invalid chunk length " + chunkLen);
+        }
+        this.head = head;
+        this.chunkLen = chunkLen;
+        this.chunks = new byte[DEFAULT_NUM_CHUNKS][];
+        this.count = 0;
+    }
+    
+    public long capacity() {
+        return this.head.length + (long) this.count * this.chunkLen;
+    }
+    
+    public void ensureCapacity(long target) {
+        while(this.capacity() < target) {
+            if(this.count == this.chunks.length) {
+                // only the chunk references are copied
+                this.chunks = Arrays.copyOf(this.chunks, 2 * this.count);
+            }
+            this.chunks[this.count++] = new byte[this.chunkLen];
+        }
+    }
+    
+    public void write(long at, byte[] data, int off, int len) {
+        int done = 0;
+        while(done < len) {
+            long pos = at + done;
+            int limit = Math.min(len - done, this.remaining(pos));
+            System.arraycopy(data, off + done, this.array(pos), this.offset(pos), limit);
+            done += limit;
+        }
+    }
+    
+    public void read(long at, byte[] data, int off, int len) {
+        int done = 0;
+        while(done < len) {
+            long pos = at + done;
+            int limit = Math.min(len - done, this.remaining(pos));
+            System.arraycopy(this.array(pos), this.offset(pos), data, off + done, limit);
+            done += limit;
+        }
+    }
+    
+    protected byte[] array(long pos) {
+        if(pos < this.head.length) {
+            return this.head;
+        }
+        long index = (pos - this.head.length) / this.chunkLen;
+        if(index >= this.count) {
+            throw new ArrayIndexOutOfBoundsException("Position " + pos 
+                + " is out of bound " + this.capacity());
+        }
+        return this.chunks[(int) index];
+    }
+    
+    protected int offset(long pos) {
+        if(pos < this.head.length) {
+            return (int) pos;
+        }
+        return (int) ((pos - this.head.length) % this.chunkLen);
+    }
+    
+    protected int remaining(long pos) {
+        if(pos < this.head.length) {
+            return this.head.length - (int) pos;
+        }
+        return this.chunkLen - this.offset(pos);
+    }
+    
+    private byte[] head;
+    private byte[][] chunks;
+    private int chunkLen, count;
+    
+    protected static final int DEFAULT_NUM_CHUNKS = 16;
+}
@@ -0,0 +1,60 @@
+package janus.core.util;
+
+/**
+ * Big-endian primitive access on byte arrays, in the same byte order as
+ * ByteBuffer, without creating any intermediate object.
+ *
+ * @author Y.K. Chan
+ *
+ */
+public final class Bytes {
+
+    private Bytes() {
+        // static utility
+    }
+
+    public static short getShort(byte[] data, int at) {
+        return (short) (((data[at] & 0xFF) << 8) | (data[at + 1] & 0xFF));
+    }
+
+    public static void putShort(byte[] data, int at, short value) {
+        data[at] = (byte) (value >> 8);
+        data[at + 1] = (byte) value;
+    }
+
+    public static int getInt(byte[] data, int at) {
+        return ((data[at] & 0xFF) << 24)
+            | ((data[at + 1] & 0xFF) << 16)
+            | ((data[at + 2] & 0xFF) << 8)
+            | (data[at + 3] & 0xFF);
+    }
+
+    public static void putInt(byte[] data, int at, int value) {
+        data[at] = (byte) (value >> 24);
+        data[at + 1] = (byte) (value >> 16);
+        data[at + 2] = (byte) (value >> 8);
+        data[at + 3] = (byte) value;
+    }
+
+    public static long getLong(byte[] data, int at) {
+        return ((long) getInt(data, at) << 32) | (getInt(data, at + SizeOf.INT.length) & 0xFFFFFFFFL);
+    }
+
+    public static void putLong(byte[] data, int at, long value) {
+        putInt(data, at, (int) (value >> 32));
+        putInt(data, at + SizeOf.INT.length, (int) value);
+    }
+
+    public static void getLongs(byte[] data, int at, long[] values, int off, int len) {
+        for(int i = 0; i < len; i++) {
+            values[off + i] = getLong(data, at + i * SizeOf.LONG.length);
+        }
+    }
+
+    public static void putLongs(byte[] data, int at, long[] values, int off, int len) {
+        for(int i = 0; i < len; i++) {
+            putLong(data, at + i * SizeOf.LONG.length, values[off + i]);
+        }
+    }
+
+}
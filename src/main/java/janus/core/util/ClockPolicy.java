@@ -0,0 +1,79 @@
+package janus.core.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * CLOCK approximation of LRU. A sweeping hand gives each referenced key a 
+ * second chance before evicting it.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class ClockPolicy implements EvictionPolicy {
+    
+    public ClockPolicy(int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity);
+        }
+        this.keys = new long[capacity];
+        this.used = new boolean[capacity];
+        this.referenced = new boolean[capacity];
+        this.slots = new HashMap<>();
+        this.hand = 0;
+    }
+
+    @Override
+    public void access(long key) {
+        Integer slot = this.slots.get(key);
+        if(slot != null) {
+            this.referenced[slot] = true;
+        }
+    }
+
+    @Override
+    public void insert(long key) {
+        for(int i = 0; i < this.keys.length; i++) {
+            int slot = (this.hand + i) % this.keys.length;
+            if(!this.used[slot]) {
+                this.keys[slot] = key;
+                this.used[slot] = true;
+                this.referenced[slot] = true;
+                this.slots.put(key, slot);
+                return;
+            }
+        }
+        throw new IllegalStateException("No free slot.");
+    }
+
+    @Override
+    public void remove(long key) {
+        Integer slot = this.slots.remove(key);
+        if(slot != null) {
+            this.used[slot] = false;
+        }
+    }
+
+    @Override
+    public long victim(LongPredicate evictable) {
+        for(int i = 0; i < 2 * this.keys.length; i++) {
+            int slot = this.hand;
+            this.hand = (this.hand + 1) % this.keys.length;
+            if(!this.used[slot] || !evictable.test(this.keys[slot])) {
+                continue;
+            }
+            if(this.referenced[slot]) {
+                this.referenced[slot] = false;
+                continue;
+            }
+            return this.keys[slot];
+        }
+        throw new IllegalStateException("No key can be evicted.");
+    }
+
+    private long[] keys;
+    private boolean[] used, referenced;
+    private Map<Long, Integer> slots;
+    private int hand;
+}
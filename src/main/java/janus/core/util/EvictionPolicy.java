@@ -0,0 +1,68 @@
+package janus.core.util;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * Policy deciding which resident key to evict from a bounded cache.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public interface EvictionPolicy {
+    
+    /**
+     * Record a hit on a resident key.
+     * @param key  Key
+     */
+    public void access(long key);
+    
+    /**
+     * Record a newly admitted key.
+     * @param key  Key
+     */
+    public void insert(long key);
+    
+    /**
+     * Forget a key no longer resident.
+     * @param key  Key
+     */
+    public void remove(long key);
+    
+    /**
+     * Choose a resident key to evict. The key remains resident until removed.
+     * @param evictable  Test if a key can be evicted
+     * @return  Key to evict
+     * @throws IllegalStateException  if no key can be evicted
+     */
+    public long victim(LongPredicate evictable);
+    
+    /**
+     * Replay a recorded trace of keys against a policy and find the hit ratio.
+     * @param policy  Eviction policy
+     * @param capacity  Number of resident keys
+     * @param trace  Keys accessed in order
+     * @return  Ratio of accesses found resident
+     */
+    public static double hitRatio(EvictionPolicy policy, int capacity, long[] trace) {
+        Set<Long> resident = new HashSet<>();
+        long hits = 0L;
+        for(long key : trace) {
+            if(resident.contains(key)) {
+                hits++;
+                policy.access(key);
+                continue;
+            }
+            if(resident.size() >= capacity) {
+                long victim = policy.victim(k -> true);
+                policy.remove(victim);
+                resident.remove(victim);
+            }
+            policy.insert(key);
+            resident.add(key);
+        }
+        return trace.length == 0 ? 0.0 : (double) hits / trace.length;
+    }
+    
+}
@@ -0,0 +1,82 @@
+package janus.core.util;
+
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Run of contiguous pages, given by the address of its first page and the number
+ * of pages. Page objects are created only on request, so an extent of any size
+ * costs no memory per page.
+ * 
+ * @author Y.K. Chan
+ *
+ * @param <T>  Type of page
+ */
+public class Extent<T> {
+    
+    /**
+     * Constructor.
+     * @param address  Address of first page
+     * @param count  Number of pages
+     * @param pageLen  Length of each page
+     * @param pages  Function creating the page at an address
+     */
+    public Extent(long address, int count, int pageLen, LongFunction<T> pages) {
+        if(count < 0) {
+            throw new IllegalArgumentException("Invalid number of pages " + count);
+        }
+        this.address = address;
+        this.count = count;
+        this.pageLen = pageLen;
+        this.pages = pages;
+    }
+    
+    public long address() {
+        return this.address;
+    }
+    
+    public int count() {
+        return this.count;
+    }
+    
+    public int pageLength() {
+        return this.pageLen;
+    }
+    
+    /**
+     * Address of a page in this extent.
+     * @param index  Index of page
+     * @return  Address of page
+     */
+    public long address(int index) {
+        if(index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException("Page " + index + " of " + this.count);
+        }
+        return this.address + (long) index * this.pageLen;
+    }
+    
+    /**
+     * Create the page object of a page in this extent. Every call creates a new
+     * object, so take each page once and fetch it again after it is closed.
+     * @param index  Index of page
+     * @return  Page
+     */
+    public T page(int index) {
+        return this.pages.apply(this.address(index));
+    }
+    
+    /**
+     * Extent over the same pages, decorating each page object created.
+     * @param <U>  Type of decorated page
+     * @param fn  Function decorating a page
+     * @return  Extent
+     */
+    public <U> Extent<U> map(Function<? super T, ? extends U> fn) {
+        return new Extent<>(this.address, this.count, this.pageLen, 
+            a -> fn.apply(this.pages.apply(a)));
+    }
+    
+    private long address;
+    private int count, pageLen;
+    private LongFunction<T> pages;
+}
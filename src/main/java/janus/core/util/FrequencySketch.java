@@ -0,0 +1,70 @@
+package janus.core.util;
+
+/**
+ * Count-min sketch estimating how often a key was seen, with 4-bit counters
+ * packed 16 to a long. All counters are halved periodically so that the
+ * estimate follows recent popularity.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class FrequencySketch {
+    
+    public static final int MAX_FREQUENCY = 15;
+    
+    public FrequencySketch(int capacity) {
+        int len = Integer.highestOneBit(Math.max(1, capacity / 4 - 1) << 1);
+        this.table = new long[Math.max(len, 8)];
+        this.mask = this.table.length * 16 - 1;
+        this.sampleSize = 10 * Math.max(capacity, 1);
+        this.additions = 0;
+    }
+    
+    public int frequency(long key) {
+        int min = MAX_FREQUENCY;
+        for(int i = 0; i < SEEDS.length; i++) {
+            int index = this.index(key, i);
+            int count = (int) ((this.table[index >>> 4] >>> ((index & 15) << 2)) & 0xFL);
+            min = Math.min(min, count);
+        }
+        return min;
+    }
+    
+    public void increment(long key) {
+        boolean added = false;
+        for(int i = 0; i < SEEDS.length; i++) {
+            int index = this.index(key, i);
+            int shift = (index & 15) << 2;
+            if(((this.table[index >>> 4] >>> shift) & 0xFL) < MAX_FREQUENCY) {
+                this.table[index >>> 4] += 1L << shift;
+                added = true;
+            }
+        }
+        if(added && ++this.additions >= this.sampleSize) {
+            this.reset();
+        }
+    }
+    
+    protected void reset() {
+        for(int i = 0; i < this.table.length; i++) {
+            this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+        }
+        this.additions /= 2;
+    }
+    
+    protected int index(long key, int i) {
+        long hash = (key + SEEDS[i]) * SEEDS[i];
+        hash ^= hash >>> 32;
+        hash *= 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 29) & this.mask;
+    }
+
+    private long[] table;
+    private int mask, sampleSize, additions;
+    
+    protected static final long[] SEEDS = {
+        0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+    };
+    
+    protected static final long RESET_MASK = 0x7777777777777777L;
+}
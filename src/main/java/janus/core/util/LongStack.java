@@ -0,0 +1,109 @@
+package janus.core.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free stack of non-negative long values, i.e. a Treiber stack with primitive
+ * nodes. Values are pushed one by one, and popped one by one or in batches with a
+ * single compare-and-set.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class LongStack {
+    
+    public LongStack() {
+        this.head = new AtomicReference<>();
+        this.size = new AtomicInteger(0);
+    }
+    
+    /**
+     * Push a value.
+     * @param value  Non-negative value
+     * @return  Number of values after pushing, which may be outdated under contention
+     */
+    public int push(long value) {
+        if(value < 0) {
+            throw new IllegalArgumentException("Invalid value " + value);
+        }
+        Node node = new Node(value);
+        do {
+            node.next = this.head.get();
+        } while(!this.head.compareAndSet(node.next, node));
+        return this.size.incrementAndGet();
+    }
+    
+    /**
+     * Pop a value.
+     * @return  Value last pushed, or -1 if empty
+     */
+    public long pop() {
+        Node node;
+        do {
+            node = this.head.get();
+            if(node == null) {
+                return -1L;
+            }
+        } while(!this.head.compareAndSet(node, node.next));
+        this.size.decrementAndGet();
+        return node.value;
+    }
+    
+    /**
+     * Pop a number of values at once, last pushed first.
+     * @param buf  Buffer for values
+     * @param off  Offset of buffer
+     * @param len  Maximum number of values
+     * @return  Number of values popped
+     */
+    public int pop(long[] buf, int off, int len) {
+        while(true) {
+            Node first = this.head.get();
+            Node last = first;
+            int num = 0;
+            while(last != null && num < len) {
+                last = last.next;
+                num++;
+            }
+            if(num == 0) {
+                return 0;
+            }
+            if(this.head.compareAndSet(first, last)) {
+                // nodes are never reused, so the detached chain is stable
+                Node node = first;
+                for(int i = 0; i < num; i++) {
+                    buf[off + i] = node.value;
+                    node = node.next;
+                }
+                this.size.addAndGet(-num);
+                return num;
+            }
+        }
+    }
+    
+    /**
+     * Number of values, which may be outdated under contention.
+     * @return  Number of values
+     */
+    public int size() {
+        return Math.max(0, this.size.get());
+    }
+    
+    public boolean isEmpty() {
+        return this.head.get() == null;
+    }
+    
+    private AtomicReference<Node> head;
+    private AtomicInteger size;
+    
+    private static class Node {
+        
+        public Node(long value) {
+            this.value = value;
+        }
+        
+        private final long value;
+        private Node next;
+    }
+}
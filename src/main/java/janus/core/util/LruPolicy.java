@@ -0,0 +1,44 @@
+package janus.core.util;
+
+import java.util.LinkedHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Least recently used eviction.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class LruPolicy implements EvictionPolicy {
+    
+    public LruPolicy() {
+        this.order = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Override
+    public void access(long key) {
+        this.order.get(key);
+    }
+
+    @Override
+    public void insert(long key) {
+        this.order.put(key, Boolean.TRUE);
+    }
+
+    @Override
+    public void remove(long key) {
+        this.order.remove(key);
+    }
+
+    @Override
+    public long victim(LongPredicate evictable) {
+        for(long key : this.order.keySet()) {
+            if(evictable.test(key)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("No key can be evicted.");
+    }
+
+    private LinkedHashMap<Long, Boolean> order;
+}
@@ -0,0 +1,133 @@
+package janus.core.util;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sequential read-ahead over a positional source. Once consecutive reads follow
+ * one another, the next windows of data are read in background into a bounded
+ * number of buffers, and subsequent reads contained in a window are served from 
+ * memory.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class ReadAhead implements AutoCloseable {
+    
+    public static final int DEFAULT_TRIGGER = 2;
+    
+    public ReadAhead(Source source, int windowLen, int depth) {
+        this(source, windowLen, depth, null);
+    }
+    
+    public ReadAhead(Source source, int windowLen, int depth, Executor executor) {
+        if(windowLen < 1 || depth < 1) {
+            throw new IllegalArgumentException("Invalid window length " + windowLen 
+                + " or depth " + depth);
+        }
+        this.source = source;
+        this.windowLen = windowLen;
+        this.depth = depth;
+        this.owned = executor == null ? Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "read-ahead");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.executor = executor == null ? this.owned : executor;
+        this.windows = new TreeMap<>();
+        this.next = -1L;
+        this.streak = 0;
+    }
+    
+    public void read(long at, byte[] buf, int off, int len) {
+        CompletableFuture<byte[]> window = null;
+        long version;
+        synchronized(this) {
+            version = this.version;
+            this.streak = at == this.next ? this.streak + 1 : 0;
+            this.next = at + len;
+            
+            long first = at / this.windowLen;
+            this.windows.headMap(first, false).clear();
+            this.windows.tailMap(first + this.depth, true).clear();
+            if(this.streak >= DEFAULT_TRIGGER) {
+                this.prefetch(first);
+            }
+            if(first == (at + len - 1) / this.windowLen) {
+                window = this.windows.get(first);
+            }
+        }
+        if(window != null) {
+            try {
+                byte[] data = window.join();
+                synchronized(this) {
+                    // the window may have been read before a write invalidating it
+                    if(this.version == version) {
+                        System.arraycopy(data, (int) (at % this.windowLen), buf, off, len);
+                        return;
+                    }
+                }
+            } catch(CompletionException ex) {
+                // e.g. window beyond end, let the source decide
+            }
+        }
+        this.source.read(at, buf, off, len);
+    }
+    
+    public synchronized void invalidate(long at, int len) {
+        long first = at / this.windowLen;
+        long last = (at + Math.max(len, 1) - 1) / this.windowLen;
+        this.windows.subMap(first, true, last, true).clear();
+        this.version++;
+    }
+    
+    public synchronized int windows() {
+        return this.windows.size();
+    }
+    
+    @Override
+    public void close() {
+        synchronized(this) {
+            this.windows.clear();
+        }
+        if(this.owned != null) {
+            this.owned.shutdownNow();
+        }
+    }
+    
+    protected void prefetch(long first) {
+        for(long i = first; i < first + this.depth; i++) {
+            if(this.windows.containsKey(i)) {
+                continue;
+            }
+            long pos = i * this.windowLen;
+            CompletableFuture<byte[]> future = CompletableFuture.supplyAsync(() -> {
+                byte[] data = new byte[this.windowLen];
+                this.source.read(pos, data, 0, data.length);
+                return data;
+            }, this.executor);
+            this.windows.put(i, future);
+        }
+    }
+    
+    private Source source;
+    private int windowLen, depth;
+    private Executor executor;
+    private ExecutorService owned;
+    private NavigableMap<Long, CompletableFuture<byte[]>> windows;
+    private long next;
+    private long version;
+    private int streak;
+    
+    @FunctionalInterface
+    public interface Source {
+        
+        public void read(long at, byte[] buf, int off, int len);
+        
+    }
+}
@@ -0,0 +1,132 @@
+package janus.core.util;
+
+import java.util.Arrays;
+
+/**
+ * Set of long values kept sorted in a primitive array, with binary search for
+ * lookups. Values are stored in a window of the array, so the smallest value is
+ * removed in constant time, and an insertion or removal shifts the shorter side of
+ * the window only.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class SortedLongArray {
+    
+    public SortedLongArray() {
+        this(INITIAL_CAPACITY);
+    }
+    
+    public SortedLongArray(int capacity) {
+        this.values = new long[Math.max(1, capacity)];
+        this.head = 0;
+        this.tail = 0;
+    }
+    
+    public int size() {
+        return this.tail - this.head;
+    }
+    
+    public boolean isEmpty() {
+        return this.tail == this.head;
+    }
+    
+    public boolean contains(long value) {
+        return Arrays.binarySearch(this.values, this.head, this.tail, value) >= 0;
+    }
+    
+    /**
+     * Add a value.
+     * @param value  Value
+     * @return  True if added, false if already present
+     */
+    public boolean add(long value) {
+        int index = Arrays.binarySearch(this.values, this.head, this.tail, value);
+        if(index >= 0) {
+            return false;
+        }
+        int pos = -index - 1;
+        if(this.head > 0 && pos - this.head < this.tail - pos) {
+            System.arraycopy(this.values, this.head, this.values, this.head - 1, pos - this.head);
+            this.head--;
+            this.values[pos - 1] = value;
+            return true;
+        }
+        if(this.tail == this.values.length) {
+            pos -= this.head;
+            this.reserve(this.size() + 1);
+            pos += this.head;
+        }
+        System.arraycopy(this.values, pos, this.values, pos + 1, this.tail - pos);
+        this.tail++;
+        this.values[pos] = value;
+        return true;
+    }
+    
+    /**
+     * Remove a value.
+     * @param value  Value
+     * @return  True if removed, false if absent
+     */
+    public boolean remove(long value) {
+        int pos = Arrays.binarySearch(this.values, this.head, this.tail, value);
+        if(pos < 0) {
+            return false;
+        }
+        if(pos - this.head < this.tail - pos - 1) {
+            System.arraycopy(this.values, this.head, this.values, this.head + 1, pos - this.head);
+            this.head++;
+        } else {
+            System.arraycopy(this.values, pos + 1, this.values, pos, this.tail - pos - 1);
+            this.tail--;
+        }
+        return true;
+    }
+    
+    public long first() {
+        if(this.isEmpty()) {
+            throw new IllegalStateException("Empty set.");
+        }
+        return this.values[this.head];
+    }
+    
+    /**
+     * Remove the smallest value.
+     * @return  Smallest value
+     */
+    public long pollFirst() {
+        long value = this.first();
+        this.head++;
+        if(this.head == this.tail) {
+            this.head = 0;
+            this.tail = 0;
+        }
+        return value;
+    }
+    
+    public long[] toArray() {
+        return Arrays.copyOfRange(this.values, this.head, this.tail);
+    }
+    
+    /**
+     * Move values to the start of the array, growing it if it is unable to hold the
+     * number of values given.
+     * @param capacity  Number of values to hold
+     */
+    protected void reserve(int capacity) {
+        long[] target = this.values;
+        if(capacity > this.values.length) {
+            target = new long[Math.max(capacity, 2 * this.values.length)];
+        }
+        int size = this.size();
+        System.arraycopy(this.values, this.head, target, 0, size);
+        this.values = target;
+        this.head = 0;
+        this.tail = size;
+    }
+    
+    private long[] values;
+    private int head, tail;
+    
+    protected static final int INITIAL_CAPACITY = 16;
+}
@@ -0,0 +1,108 @@
+package janus.core.util;
+
+import java.util.LinkedHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Window TinyLFU eviction. New keys enter a small LRU window. A key leaving the
+ * window is admitted into the main region only if it has been seen more often
+ * than the main region's victim, so a one-off scan cannot flush keys that are
+ * used frequently. The main region is a segmented LRU of a probation and a 
+ * protected segment.
+ * 
+ * @author Y.K. Chan
+ *
+ */
+public class TinyLfuPolicy implements EvictionPolicy {
+    
+    public TinyLfuPolicy(int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity);
+        }
+        this.windowCap = Math.max(1, capacity / 100);
+        this.protectedCap = (capacity - this.windowCap) * 4 / 5;
+        this.window = new LinkedHashMap<>(16, 0.75f, true);
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protect = new LinkedHashMap<>(16, 0.75f, true);
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    @Override
+    public void access(long key) {
+        this.sketch.increment(key);
+        if(this.window.get(key) != null || this.protect.get(key) != null) {
+            return;
+        }
+        if(this.probation.remove(key) != null) {
+            this.protect.put(key, Boolean.TRUE);
+            if(this.protect.size() > this.protectedCap) {
+                long demoted = this.protect.keySet().iterator().next();
+                this.protect.remove(demoted);
+                this.probation.put(demoted, Boolean.TRUE);
+            }
+        }
+    }
+
+    @Override
+    public void insert(long key) {
+        this.sketch.increment(key);
+        this.window.put(key, Boolean.TRUE);
+        while(this.window.size() > this.windowCap) {
+            long eldest = this.window.keySet().iterator().next();
+            this.window.remove(eldest);
+            this.probation.put(eldest, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void remove(long key) {
+        if(this.window.remove(key) == null && this.probation.remove(key) == null) {
+            this.protect.remove(key);
+        }
+    }
+
+    @Override
+    public long victim(LongPredicate evictable) {
+        Long candidate = this.window.size() >= this.windowCap ? this.first(this.window, evictable) : null;
+        Long victim = this.first(this.probation, evictable);
+        if(victim == null) {
+            victim = this.first(this.protect, evictable);
+        }
+        if(candidate == null) {
+            if(victim == null) {
+                victim = this.first(this.window, evictable);
+            }
+            if(victim == null) {
+                throw new IllegalStateException("No key can be evicted.");
+            }
+            return victim;
+        }
+        if(victim == null) {
+            return candidate;
+        }
+        if(this.sketch.frequency(candidate) > this.sketch.frequency(victim)) {
+            // candidate wins a place in main region
+            this.window.remove(candidate);
+            this.probation.put(candidate, Boolean.TRUE);
+            return victim;
+        }
+        return candidate;
+    }
+    
+    public FrequencySketch sketch() {
+        return this.sketch;
+    }
+    
+    protected Long first(LinkedHashMap<Long, Boolean> segment, LongPredicate evictable) {
+        for(long key : segment.keySet()) {
+            if(evictable.test(key)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private int windowCap, protectedCap;
+    private LinkedHashMap<Long, Boolean> window, probation, protect;
+    private FrequencySketch sketch;
+}
@@ -25,7 +25,10 @@
 package janus.core.heap.base;
 
 import janus.core.heap.Page;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Test;
@@ -36,6 +39,48 @@ import org.junit.Test;
  */
 public class BlockArrayPageTest {
     
+    @Test
+    public void shouldBeAbleToReadAndWritePrimitivesAcrossBlocks() {
+        AtomicInteger count = new AtomicInteger(0);
+        try(Page page = new BlockArrayPage(1024L, Arrays.asList(new byte[4][256]), (ptr, data) -> count.incrementAndGet())){
+            page.putLong(252, 0x0123456789ABCDEFL);
+            page.putInt(512, -42);
+            page.putShort(1022, (short) 7);
+            Assert.assertEquals(0x0123456789ABCDEFL, page.getLong(252));
+            Assert.assertEquals(-42, page.getInt(512));
+            Assert.assertEquals((short) 7, page.getShort(1022));
+            
+            byte[] result = new byte[8];
+            page.read(252, result, 0, result.length);
+            Assert.assertEquals(0x0123456789ABCDEFL, ByteBuffer.wrap(result).getLong());
+            
+            long[] values = {1L, 2L, 3L};
+            page.putLongs(240, values, 0, values.length);
+            long[] longs = new long[values.length];
+            page.getLongs(240, longs, 0, longs.length);
+            Assert.assertArrayEquals(values, longs);
+            
+            page.commit();
+        }
+        Assert.assertEquals(4, count.get());
+    }
+    
+    @Test
+    public void shouldFlushOnlyBlocksDirtiedSinceLastCommit() {
+        List<Long> flushed = new ArrayList<>();
+        try(Page page = new BlockArrayPage(1024L, Arrays.asList(new byte[4][256]), (ptr, data) -> flushed.add(ptr))){
+            page.putInt(300, 1);
+            page.putInt(800, 2);
+            page.commit();
+            Assert.assertEquals(Arrays.asList(1024L + 256, 1024L + 768), flushed);
+            
+            flushed.clear();
+            page.putInt(4, 3);
+            page.commit();
+            Assert.assertEquals(Arrays.asList(1024L), flushed);
+        }
+    }
+    
     @Test
     public void shouldBeAbleToReadAndWriteInAnyBlock() {
         byte[] str = "This is a string.".getBytes();
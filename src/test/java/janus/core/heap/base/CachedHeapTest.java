@@ -0,0 +1,83 @@
+package janus.core.heap.base;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import janus.core.heap.Heap;
+import janus.core.heap.Page;
+import janus.core.heap.Session;
+import janus.core.repo.MemoryRepo;
+import janus.core.repo.Repository;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CachedHeapTest {
+    
+    @Test
+    public void shouldDeferWriteUntilSessionCommit() throws Exception {
+        byte[] str = "This is a test.".getBytes();
+        byte[] mem = new byte[8192];
+        try(Repository repo = new MemoryRepo(mem);
+            Heap heap = new CachedHeap(new ExpandOnlyHeap(repo, 256, 4), 4);
+            Session session = heap.newSession()){
+            
+            try(Page page = session.alloc(); Page page1 = session.alloc()){
+                page1.write(0, str, 0, str.length);
+                page1.commit();
+            }
+            Assert.assertArrayEquals(new byte[str.length], Arrays.copyOfRange(mem, 1024, 1024 + str.length));
+            
+            try(Page page = session.fetch(1024)){
+                byte[] temp = new byte[str.length];
+                page.read(0, temp, 0, temp.length);
+                Assert.assertArrayEquals(str, temp);
+            }
+            session.commit();
+            Assert.assertArrayEquals(str, Arrays.copyOfRange(mem, 1024, 1024 + str.length));
+        }
+    }
+    
+    @Test
+    public void shouldCommitRepositoryOnSessionCommit() throws Exception {
+        AtomicInteger commits = new AtomicInteger(0);
+        try(Repository repo = new MemoryRepo(new byte[8192]) {
+
+                @Override
+                public void commit() {
+                    commits.incrementAndGet();
+                }
+
+            };
+            Heap heap = new CachedHeap(new ExpandOnlyHeap(repo, 256, 4), 4);
+            Session session = heap.newSession()){
+            
+            session.alloc().close();
+            session.commit();
+            Assert.assertEquals(1, commits.get());
+        }
+    }
+    
+    @Test
+    public void shouldWriteBackDirtyPageOnEviction() throws Exception {
+        byte[] mem = new byte[8192];
+        try(Repository repo = new MemoryRepo(mem);
+            Heap heap = new CachedHeap(new ExpandOnlyHeap(repo, 256, 4), 2);
+            Session session = heap.newSession()){
+            
+            for(int i = 0; i < 4; i++) {
+                try(Page page = session.alloc()){
+                    page.write(0, new byte[] {(byte) (i + 1)}, 0, 1);
+                }
+            }
+            Assert.assertEquals((byte) 2, mem[1024]);
+            for(int i = 1; i < 4; i++) {
+                try(Page page = session.fetch(i * 1024L)){
+                    byte[] temp = new byte[1];
+                    page.read(0, temp, 0, 1);
+                    Assert.assertEquals((byte) (i + 1), temp[0]);
+                }
+            }
+        }
+    }
+
+}
@@ -4,6 +4,8 @@ import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.LongBuffer;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import janus.core.heap.Heap;
 import janus.core.heap.Page;
@@ -11,6 +13,7 @@ import janus.core.heap.Session;
 import janus.core.repo.FileRepo;
 import janus.core.repo.MemoryRepo;
 import janus.core.repo.Repository;
+import janus.core.util.Extent;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -92,6 +95,98 @@ public class ExpandOnlyHeapTest {
         Assert.assertArrayEquals(str, Arrays.copyOfRange(mem, at, at + str.length));
     }
     
+    @Test
+    public void shouldAllocateContiguousPagesInBulk() throws Exception {
+        byte[] str = "This is a test.".getBytes();
+        byte[] mem = new byte[8192];
+        try(Repository repo = new MemoryRepo(mem);
+            Heap heap = new ExpandOnlyHeap(repo, 256, 4);
+            Session session = heap.newSession()){
+            
+            Extent<Page> pages = session.alloc(4);
+            for(int i = 0; i < pages.count(); i++) {
+                Assert.assertEquals(i * 1024L, pages.address(i));
+            }
+            Page page = pages.page(3);
+            Assert.assertEquals(3 * 1024L, page.address());
+            page.write(0, str, 0, str.length);
+            page.commit();
+            
+            Assert.assertEquals(4096L, session.alloc().address());
+            session.commit();
+        }
+        
+        LongBuffer buf = ByteBuffer.wrap(mem).asLongBuffer();
+        Assert.assertEquals(5 * 1024L, buf.get(ExpandOnlyHeap.IDX_HEAP_SIZE));
+        int at = 3 * 1024;
+        Assert.assertArrayEquals(str, Arrays.copyOfRange(mem, at, at + str.length));
+    }
+    
+    @Test
+    public void shouldCommitRepositoryOnSessionCommit() throws Exception {
+        AtomicInteger commits = new AtomicInteger(0);
+        Repository repo = new MemoryRepo(new byte[8192]) {
+
+            @Override
+            public void commit() {
+                commits.incrementAndGet();
+            }
+            
+        };
+        try(Heap heap = new ExpandOnlyHeap(repo, 256, 4);
+            Session session = heap.newSession()){
+            try(Page page = session.alloc()){
+                byte[] str = "Pecunia non olet.".getBytes();
+                page.write(0, str, 0, str.length);
+                page.commit();
+            }
+            Assert.assertEquals(0, commits.get());
+            session.commit();
+            Assert.assertEquals(1, commits.get());
+        }
+    }
+    
+    @Test
+    public void shouldPersistHeapSizeLazily() throws Exception {
+        byte[] mem = new byte[8192];
+        try(Repository repo = new MemoryRepo(mem);
+            Heap heap = new ExpandOnlyHeap(repo, 256, 4);
+            Session session = heap.newSession()){
+            
+            Assert.assertEquals(0L, session.alloc().address());
+            Assert.assertEquals(1024L, session.alloc().address());
+            Assert.assertEquals(0L, ByteBuffer.wrap(mem).asLongBuffer().get(ExpandOnlyHeap.IDX_HEAP_SIZE));
+            
+            session.commit();
+            Assert.assertEquals(2048L, ByteBuffer.wrap(mem).asLongBuffer().get(ExpandOnlyHeap.IDX_HEAP_SIZE));
+            
+            try(Page page = session.alloc()){
+                page.write(0, new byte[] {1}, 0, 1);
+                page.commit();
+            }
+            Assert.assertEquals(3072L, ByteBuffer.wrap(mem).asLongBuffer().get(ExpandOnlyHeap.IDX_HEAP_SIZE));
+        }
+    }
+    
+    @Test
+    public void shouldAllocateDistinctPagesConcurrently() throws Exception {
+        try(Repository repo = new MemoryRepo();
+            Heap heap = new ExpandOnlyHeap(repo, 256, 4)){
+            
+            long[] addrs = IntStream.range(0, 1000).parallel()
+                .mapToLong(i -> {
+                    try(Session session = heap.newSession(); Page page = session.alloc()){
+                        return page.address();
+                    }
+                })
+                .sorted()
+                .toArray();
+            for(int i = 0; i < addrs.length; i++) {
+                Assert.assertEquals(i * 1024L, addrs[i]);
+            }
+        }
+    }
+    
     @Test
     public void shouldWriteDataOnlyAfterPageIsCommitted() throws Exception {
         byte[] str = "This is a test.".getBytes();
@@ -1,6 +1,13 @@
 package janus.core.heap.base;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import janus.core.heap.Heap;
 import janus.core.heap.Page;
@@ -30,6 +37,26 @@ public class RecyclePageHeapTest {
                 + SizeOf.LONG.length));
     }        
     
+    @Test
+    public void shouldCommitRepositoryOnSessionCommit() throws Exception {
+        AtomicInteger commits = new AtomicInteger(0);
+        try(Repository repo = new MemoryRepo(new byte[4096]) {
+
+                @Override
+                public void commit() {
+                    commits.incrementAndGet();
+                }
+
+            };
+            Heap heap = this.newHeap(repo, 1024, 1);
+            Session session = heap.newSession()){
+            
+            session.free(session.alloc());
+            session.commit();
+            Assert.assertEquals(1, commits.get());
+        }
+    }
+    
     @Test
     public void shouldBeAbleToFallBackToBaseAllocWhenNoRecycledPage() throws Exception {
         byte[] mem = new byte[4096];
@@ -77,6 +104,70 @@ public class RecyclePageHeapTest {
                 ExpandOnlyHeap.META_DATA_LEN + RecyclePageHeap.HEADER_LEN + SizeOf.LONG.length));
     }
     
+    @Test
+    public void shouldRecycleFreedPagesAfterReopen() throws Exception {
+        byte[] mem = new byte[1 << 20];
+        Set<Long> freed = new HashSet<>();
+        try(Heap heap = this.newHeap(new MemoryRepo(mem), 1024, 4);
+            Session session = heap.newSession()){
+            List<Page> pages = new ArrayList<>();
+            for(int i = 0; i < 200; i++) {
+                pages.add(session.alloc());
+            }
+            for(Page page : pages) {
+                freed.add(page.address());
+                session.free(page);
+            }
+        }
+        
+        Heap base = new ExpandOnlyHeap(new MemoryRepo(mem), 256, 4);
+        try(Heap heap = new RecyclePageHeap(base, 0L, 4);
+            Session session = heap.newSession()){
+            for(int i = 0; i < 200; i++) {
+                long address = session.alloc().address();
+                Assert.assertTrue("Page " + address + " not recycled", freed.remove(address));
+            }
+            Assert.assertEquals(201 * 1024L, session.alloc().address());
+        }
+    }
+    
+    @Test
+    public void shouldNotHandOutPageTwiceToConcurrentSessions() throws Exception {
+        Set<Long> inUse = ConcurrentHashMap.newKeySet();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        try(Heap heap = this.newHeap(new MemoryRepo(new byte[1 << 20]), 1024, 8)){
+            Thread[] threads = new Thread[8];
+            for(int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    try(Session session = heap.newSession()){
+                        Page[] pages = new Page[3];
+                        for(int round = 0; round < 500; round++) {
+                            for(int i = 0; i < pages.length; i++) {
+                                pages[i] = session.alloc();
+                                if(!inUse.add(pages[i].address())) {
+                                    throw new AssertionError("Page " + pages[i].address() + " handed out twice");
+                                }
+                            }
+                            for(Page page : pages) {
+                                inUse.remove(page.address());
+                                session.free(page);
+                            }
+                        }
+                    } catch(Throwable ex) {
+                        error.compareAndSet(null, ex);
+                    }
+                });
+                threads[t].start();
+            }
+            for(Thread thread : threads) {
+                thread.join();
+            }
+        }
+        if(error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+    }
+    
     private Heap newHeap(Repository repo, int pageLen, int cacheLimit) {
         Heap heap = new ExpandOnlyHeap(repo, pageLen / 4, 4);
         try(Session session = heap.newSession(); Page page = session.alloc()){
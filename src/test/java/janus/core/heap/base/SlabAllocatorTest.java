@@ -0,0 +1,187 @@
+package janus.core.heap.base;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import janus.core.heap.Heap;
+import janus.core.heap.Page;
+import janus.core.heap.Session;
+import janus.core.repo.MemoryRepo;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlabAllocatorTest {
+
+    @Test
+    public void shouldPackSmallRecordsInOnePage() throws Exception {
+        try(SlabAllocator slab = this.create(new byte[1 << 16])){
+            Set<Long> pages = new HashSet<>();
+            List<Long> ids = new ArrayList<>();
+            for(int i = 0; i < 10; i++) {
+                long id = slab.alloc(("Record " + i).getBytes());
+                pages.add(SlabAllocator.address(id));
+                ids.add(id);
+            }
+            Assert.assertEquals(1, pages.size());
+            for(int i = 0; i < ids.size(); i++) {
+                Assert.assertEquals("Record " + i, new String(slab.read(ids.get(i))));
+            }
+        }
+    }
+
+    @Test
+    public void shouldSeparateSizeClasses() throws Exception {
+        try(SlabAllocator slab = this.create(new byte[1 << 16])){
+            Assert.assertArrayEquals(new int[]{16, 32, 64, 128}, slab.sizeClasses());
+            long small = slab.alloc(new byte[10]);
+            long large = slab.alloc(new byte[100]);
+            Assert.assertNotEquals(SlabAllocator.address(small), SlabAllocator.address(large));
+            Assert.assertEquals(100, slab.read(large).length);
+        }
+    }
+
+    @Test
+    public void shouldReuseFreedSlot() throws Exception {
+        try(SlabAllocator slab = this.create(new byte[1 << 16])){
+            long first = slab.alloc("first".getBytes());
+            long second = slab.alloc("second".getBytes());
+            slab.free(first);
+            long third = slab.alloc("third".getBytes());
+            Assert.assertEquals(first, third);
+            Assert.assertEquals("third", new String(slab.read(third)));
+            Assert.assertEquals("second", new String(slab.read(second)));
+        }
+    }
+
+    @Test
+    public void shouldSpillToNewPageWhenFull() throws Exception {
+        try(SlabAllocator slab = this.create(new byte[1 << 16])){
+            Set<Long> pages = new HashSet<>();
+            List<Long> ids = new ArrayList<>();
+            for(int i = 0; i < 200; i++) {
+                long id = slab.alloc(new byte[]{(byte) i});
+                pages.add(SlabAllocator.address(id));
+                ids.add(id);
+            }
+            Assert.assertTrue(pages.size() > 1);
+            Assert.assertEquals(200, new HashSet<>(ids).size());
+
+            // a slot freed in a full page is found again
+            slab.free(ids.get(3));
+            Assert.assertEquals((long) ids.get(3), slab.alloc(new byte[]{3}));
+            for(int i = 0; i < ids.size(); i++) {
+                Assert.assertEquals((byte) i, slab.read(ids.get(i))[0]);
+            }
+        }
+    }
+
+    @Test
+    public void shouldKeepRecordsAfterReopen() throws Exception {
+        byte[] mem = new byte[1 << 16];
+        long id;
+        long root;
+        try(SlabAllocator slab = this.create(mem)){
+            id = slab.alloc("Pecunia non olet.".getBytes());
+            slab.alloc("filler".getBytes());
+            slab.alloc("Another record, 1.".getBytes());
+            root = this.root;
+        }
+        try(SlabAllocator slab = new SlabAllocator(new ExpandOnlyHeap(new MemoryRepo(mem), 256, 4), root)){
+            Assert.assertEquals("Pecunia non olet.", new String(slab.read(id)));
+            slab.free(id);
+            Assert.assertEquals(id, slab.alloc("Ne plus ultra, ok.".getBytes()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBeAbleToReadFreedRecord() throws Exception {
+        try(SlabAllocator slab = this.create(new byte[1 << 16])){
+            long id = slab.alloc("record".getBytes());
+            slab.free(id);
+            slab.read(id);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBeAbleToStoreRecordLargerThanAllClasses() throws Exception {
+        try(SlabAllocator slab = this.create(new byte[1 << 16])){
+            slab.alloc(new byte[300]);
+        }
+    }
+
+    @Test
+    public void shouldFreeEmptyPageToHeapIfEnabled() throws Exception {
+        Heap base = new ExpandOnlyHeap(new MemoryRepo(new byte[1 << 16]), 256, 4);
+        Heap heap;
+        try(Session session = base.newSession(); Page page = session.alloc()){
+            heap = new RecyclePageHeap(base, page.address(), 4);
+        }
+        try(Session session = heap.newSession(); Page page = session.alloc()){
+            this.root = page.address();
+        }
+        try(SlabAllocator slab = new SlabAllocator(heap, this.root, null, true)){
+            List<Long> ids = this.fillPage(slab);
+            for(long id : ids) {
+                slab.free(id);
+            }
+            // the empty page is recycled by the heap for another size class
+            long other = slab.alloc(new byte[100]);
+            Assert.assertEquals(SlabAllocator.address(ids.get(0)), SlabAllocator.address(other));
+        }
+    }
+
+    @Test
+    public void shouldKeepEmptyPageIfNotEnabled() throws Exception {
+        try(SlabAllocator slab = this.create(new byte[1 << 16])){
+            List<Long> ids = this.fillPage(slab);
+            for(long id : ids) {
+                slab.free(id);
+            }
+            long id = slab.alloc(new byte[]{1});
+            Assert.assertEquals(SlabAllocator.address(ids.get(0)), SlabAllocator.address(id));
+            Assert.assertNotEquals(SlabAllocator.address(ids.get(0)), SlabAllocator.address(slab.alloc(new byte[100])));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptSizeClassBeyondLengthPrefix() throws Exception {
+        Heap heap = new ExpandOnlyHeap(new MemoryRepo(new byte[1 << 20]), 1 << 18, 1);
+        try(Session session = heap.newSession(); Page page = session.alloc()){
+            this.root = page.address();
+        }
+        new SlabAllocator(heap, this.root, new int[]{16, 1 << 16});
+    }
+
+    /**
+     * Store records until the first page is full and another page is started.
+     * @param slab  Slab allocator
+     * @return  Records stored in the first page
+     */
+    protected List<Long> fillPage(SlabAllocator slab) {
+        List<Long> ids = new ArrayList<>();
+        long first = -1L;
+        while(true) {
+            long id = slab.alloc(new byte[]{0});
+            if(first < 0) {
+                first = SlabAllocator.address(id);
+            }
+            if(SlabAllocator.address(id) != first) {
+                return ids;
+            }
+            ids.add(id);
+        }
+    }
+
+    protected SlabAllocator create(byte[] mem) {
+        Heap heap = new ExpandOnlyHeap(new MemoryRepo(mem), 256, 4);
+        try(Session session = heap.newSession(); Page page = session.alloc()){
+            this.root = page.address();
+        }
+        return new SlabAllocator(heap, this.root);
+    }
+
+    private long root;
+
+}
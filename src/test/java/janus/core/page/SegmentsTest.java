@@ -1,5 +1,10 @@
 package janus.core.page;
 
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import janus.core.page.Segments.Flush;
@@ -20,16 +25,25 @@ public class SegmentsTest {
     @Test
     public void shouldFlushOnlyDirtySegments() {
         String str = "0123456789012345678901234567890123456789";
-        AtomicInteger count = new AtomicInteger(0);
-        Flush flush = (at, data, off, len) -> {
-            Assert.assertTrue("Invalid flush position " + at, at == 0 || at == 16 || at == 32);
-            count.incrementAndGet();
-        };
+        List<String> flushed = new ArrayList<>();
+        Flush flush = (at, data, off, len) -> flushed.add(at + ":" + len);
         try(Page page = new Segments(0, new byte[32 * 16], 16, flush)){
            page.write(0, str.getBytes());
+           page.write(100, new byte[] {1});
            Assert.assertEquals(str, new String(page.read(0, str.length())));
         }
-        Assert.assertEquals(3, count.get());
+        // adjacent dirty segments are flushed together
+        Assert.assertEquals(Arrays.asList("0:48", "96:16"), flushed);
+    }
+
+    @Test
+    public void shouldFlushFullyDirtyPageOnce() {
+        List<String> flushed = new ArrayList<>();
+        Flush flush = (at, data, off, len) -> flushed.add(at + ":" + len);
+        try(Segments page = new Segments(0, new byte[32 * 16], 16, flush, true)){
+           page.markDirty(0, page.length());
+        }
+        Assert.assertEquals(Arrays.asList("0:512"), flushed);
     }
     
     @Test
@@ -37,15 +51,106 @@ public class SegmentsTest {
         String str = "0123456789012345678901234567890123456789";
         AtomicInteger count = new AtomicInteger(0);
         Flush flush = (at, data, off, len) -> {
-            Assert.assertTrue("Invalid flush position " + at, at == 0 || at == 16 || at == 32);
+            Assert.assertEquals(0L, at);
             count.incrementAndGet();
         };
         try(Page page = new Segments(0, new byte[32 * 16], 16, flush)){
            page.write(0, str.getBytes());
            page.close();
-           Assert.assertEquals(3, count.get());
+           Assert.assertEquals(1, count.get());
+        }
+        Assert.assertEquals(1, count.get());
+    }
+
+    @Test
+    public void shouldShareBufferInView() {
+        String str = "This is a test string for shouldShareBufferInView.";
+        byte[] buffer = new byte[1024];
+        try(Page page = new Segments(0, buffer, 16, this::mock)){
+           ByteBuffer view = page.view(10, str.length());
+           page.write(10, str.getBytes());
+           byte[] data = new byte[str.length()];
+           view.get(data);
+           Assert.assertEquals(str, new String(data));
+        }
+    }
+    
+    @Test(expected = ReadOnlyBufferException.class)
+    public void shouldNotBeAbleToWriteThroughReadOnlyView() {
+        try(Page page = new Segments(0, new byte[1024], 16, this::mock)){
+           page.view(0, 16).put((byte) 1);
+        }
+    }
+    
+    @Test
+    public void shouldFlushSegmentsCoveredByWritableView() {
+        AtomicInteger count = new AtomicInteger(0);
+        Flush flush = (at, data, off, len) -> {
+            Assert.assertEquals(16L, at);
+            Assert.assertEquals(32, len);
+            Assert.assertEquals(7, data[off + 4]);
+            count.incrementAndGet();
+        };
+        try(Page page = new Segments(0, new byte[32 * 16], 16, flush)){
+           ByteBuffer view = page.writableView(20, 20);
+           Assert.assertEquals(0, view.position());
+           Assert.assertEquals(20, view.remaining());
+           view.put(0, (byte) 7);
+           Assert.assertEquals(7, page.read(20, 1)[0]);
+        }
+        Assert.assertEquals(1, count.get());
+    }
+
+    @Test
+    public void shouldFlushSegmentsCoveredByPrimitiveWrite() {
+        AtomicInteger count = new AtomicInteger(0);
+        Flush flush = (at, data, off, len) -> {
+            Assert.assertEquals(0L, at);
+            Assert.assertEquals(32, len);
+            count.incrementAndGet();
+        };
+        try(Page page = new Segments(0, new byte[32 * 16], 16, flush)){
+           page.putLong(12, 0x0123456789ABCDEFL);
+           page.putInt(4, 42);
+           page.putShort(0, (short) 7);
+           Assert.assertEquals(0x0123456789ABCDEFL, page.getLong(12));
+           Assert.assertEquals(42, page.getInt(4));
+           Assert.assertEquals((short) 7, page.getShort(0));
+           Assert.assertEquals(0x0123456789ABCDEFL, ByteBuffer.wrap(page.read(12, 8)).getLong());
+        }
+        Assert.assertEquals(1, count.get());
+    }
+    
+    @Test
+    public void shouldBeAbleToReadAndWriteLongArray() {
+        long[] values = {11L, 13L, 15L, 17L};
+        try(Page page = new Segments(0, new byte[1024], 16, this::mock)){
+           page.putLongs(8, values, 0, values.length);
+           long[] result = new long[values.length];
+           page.getLongs(8, result, 0, result.length);
+           Assert.assertArrayEquals(values, result);
+           Assert.assertEquals(13L, page.getLong(16));
+        }
+    }
+
+    @Test
+    public void shouldFlushOnlyDirtyRangesWhenRanged() {
+        List<String> flushed = new ArrayList<>();
+        Flush flush = (at, data, off, len) -> {
+            Assert.assertEquals(at, off);
+            flushed.add(at + ":" + len);
+        };
+        try(Page page = new Segments(0, new byte[32 * 16], 16, flush, true)){
+           page.putLong(12, 1L);
+           page.putInt(100, 2);
+           page.putInt(108, 3);
+           page.close();
+           Assert.assertEquals(Arrays.asList("12:8", "100:12"), flushed);
+           
+           flushed.clear();
+           page.putShort(500, (short) 4);
         }
-        Assert.assertEquals(3, count.get());
+        Assert.assertEquals(Arrays.asList("500:2"), flushed);
     }
 
     protected void mock(long at, byte[] data, int off, int len) {
@@ -58,6 +58,24 @@ public class FileRepoTest {
         }
     }
     
+    @Test
+    public void shouldBeAbleToScatterAndGatherData() throws IOException {
+        File tempFile = File.createTempFile("tmp", ".bin");
+        byte[][] str = {"It's my way, ".getBytes(), "or the highway.".getBytes()};
+        try(Repository repo = FileRepo.of(tempFile)){
+            repo.write(1024, str);
+            
+            byte[][] tmp = {new byte[str[0].length], new byte[str[1].length], new byte[4]};
+            repo.read(1024, tmp);
+            
+            Assert.assertArrayEquals(str[0], tmp[0]);
+            Assert.assertArrayEquals(str[1], tmp[1]);
+            Assert.assertArrayEquals(new byte[4], tmp[2]);
+        } finally {
+            tempFile.deleteOnExit();
+        }
+    }
+    
     @Test
     public void shouldBeAbleToReadUnwrittenRegion() throws IOException {
         File tempFile = File.createTempFile("tmp", ".bin");
@@ -0,0 +1,124 @@
+package janus.core.repo;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import janus.core.util.ReadAhead;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReadAheadRepoTest {
+    
+    @Test
+    public void shouldServeSequentialReadsFromPrefetchedWindows() {
+        int pageLen = 1024;
+        AtomicInteger reads = new AtomicInteger(0);
+        MemoryRepo base = new MemoryRepo() {
+
+            @Override
+            public void read(long at, byte[] buf) {
+                reads.incrementAndGet();
+                super.read(at, buf);
+            }
+            
+        };
+        for(int i = 0; i < 16; i++) {
+            base.write(i * pageLen, this.page(pageLen, i));
+        }
+        
+        try(Repository repo = new ReadAheadRepo(base, 4 * pageLen, 4, Runnable::run)){
+            for(int i = 0; i < 16; i++) {
+                byte[] buf = new byte[pageLen];
+                repo.read(i * pageLen, buf);
+                Assert.assertArrayEquals(this.page(pageLen, i), buf);
+            }
+        }
+        // pages of the first window are read directly until reads are found sequential
+        Assert.assertTrue(reads.get() < 16);
+    }
+    
+    @Test
+    public void shouldNotServeStaleDataAfterWrite() {
+        int pageLen = 1024;
+        MemoryRepo base = new MemoryRepo();
+        for(int i = 0; i < 8; i++) {
+            base.write(i * pageLen, this.page(pageLen, i));
+        }
+        try(Repository repo = new ReadAheadRepo(base, pageLen, 4, Runnable::run)){
+            for(int i = 0; i < ReadAhead.DEFAULT_TRIGGER + 1; i++) {
+                repo.read(i * pageLen, new byte[pageLen]);
+            }
+            repo.write(4 * pageLen, this.page(pageLen, 99));
+            
+            byte[] buf = new byte[pageLen];
+            repo.read(4 * pageLen, buf);
+            Assert.assertArrayEquals(this.page(pageLen, 99), buf);
+        }
+    }
+    
+    @Test(timeout = 10000)
+    public void shouldNotServeWindowReadBeforeConcurrentWrite() throws Exception {
+        int pageLen = 1024;
+        int target = 4;
+        MemoryRepo base = new MemoryRepo();
+        for(int i = 0; i < 8; i++) {
+            base.write(i * pageLen, this.page(pageLen, i));
+        }
+        
+        CountDownLatch windowRead = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try(Repository repo = new ReadAheadRepo(base, pageLen, 4, executor) {
+
+            @Override
+            protected void readBase(long at, byte[] buf, int off, int len) {
+                super.readBase(at, buf, off, len);
+                if(at == target * pageLen && Thread.currentThread().getName().startsWith("pool")) {
+                    // hold the window with old data until the write is done
+                    windowRead.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            
+        }){
+            for(int i = 1; i < target; i++) {
+                repo.read(i * pageLen, new byte[pageLen]);
+            }
+            Assert.assertTrue(windowRead.await(5, TimeUnit.SECONDS));
+            
+            AtomicReference<byte[]> result = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                byte[] buf = new byte[pageLen];
+                repo.read(target * pageLen, buf);
+                result.set(buf);
+            });
+            reader.start();
+            while(reader.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            
+            repo.write(target * pageLen, this.page(pageLen, 99));
+            release.countDown();
+            reader.join();
+            Assert.assertArrayEquals(this.page(pageLen, 99), result.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    protected byte[] page(int len, int value) {
+        byte[] page = new byte[len];
+        Arrays.fill(page, (byte) value);
+        return page;
+    }
+
+}
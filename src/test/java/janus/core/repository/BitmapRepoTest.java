@@ -0,0 +1,189 @@
+package janus.core.repository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import janus.core.page.Page;
+import janus.core.storage.MemoryStorage;
+import janus.core.storage.Storage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BitmapRepoTest {
+
+    @Test
+    public void shouldHandOutLowestFreePageFirst() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            Repository repo = this.create(storage)){
+            List<Page> pages = new ArrayList<>();
+            for(int i = 0; i < 8; i++) {
+                pages.add(this.touch(repo.alloc()));
+            }
+            repo.free(pages.get(6));
+            repo.free(pages.get(2));
+            repo.free(pages.get(4));
+
+            Assert.assertEquals(pages.get(2).address(), repo.alloc().address());
+            Assert.assertEquals(pages.get(4).address(), repo.alloc().address());
+            Assert.assertEquals(pages.get(6).address(), repo.alloc().address());
+            // next to the bitmap page allocated on first free
+            Assert.assertEquals(pages.get(7).address() + 2 * PAGE_LEN, repo.alloc().address());
+        }
+    }
+
+    @Test
+    public void shouldTrackPagesAcrossBitmaps() throws Exception {
+        int num = 2 * PAGE_LEN * Byte.SIZE + 100;
+        try(Storage storage = new MemoryStorage();
+            Repository repo = this.create(storage)){
+            List<Page> pages = new ArrayList<>();
+            for(int i = 0; i < num; i++) {
+                pages.add(repo.alloc());
+            }
+            List<Long> freed = new ArrayList<>();
+            for(int i = pages.size() - 1; i >= 0; i -= 3) {
+                freed.add(0, pages.get(i).address());
+                repo.free(this.touch(pages.get(i)));
+            }
+            for(long address : freed) {
+                Assert.assertEquals(address, repo.alloc().address());
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadOnlyRootPageOnReopen() throws Exception {
+        Storage storage = new MemoryStorage();
+        Set<Long> freed = new HashSet<>();
+        try(Repository repo = this.create(storage)){
+            List<Page> pages = new ArrayList<>();
+            for(int i = 0; i < 2 * PAGE_LEN * Byte.SIZE; i++) {
+                pages.add(this.touch(repo.alloc()));
+            }
+            for(int i = 10; i < pages.size(); i += 100) {
+                freed.add(pages.get(i).address());
+                repo.free(pages.get(i));
+            }
+        }
+
+        AtomicInteger reads = new AtomicInteger(0);
+        try(Repository repo = this.open(new Storage() {
+
+                @Override
+                public void write(long at, byte[] data, int off, int len) {
+                    storage.write(at, data, off, len);
+                }
+
+                @Override
+                public void read(long at, byte[] data, int off, int len) {
+                    reads.incrementAndGet();
+                    storage.read(at, data, off, len);
+                }
+
+                @Override
+                public void close() throws Exception {
+                    storage.close();
+                }
+
+            })){
+            // header of base repository and root page
+            Assert.assertEquals(2, reads.get());
+            Set<Long> recycled = new HashSet<>();
+            for(int i = 0; i < freed.size(); i++) {
+                recycled.add(repo.alloc().address());
+            }
+            Assert.assertEquals(freed, recycled);
+        }
+    }
+
+    @Test
+    public void shouldForceStorageOnlyOnCommit() throws Exception {
+        AtomicInteger commits = new AtomicInteger(0);
+        Storage storage = new MemoryStorage() {
+
+            @Override
+            public void commit() {
+                commits.incrementAndGet();
+            }
+
+        };
+        try(Repository repo = this.create(storage)){
+            List<Page> pages = new ArrayList<>();
+            for(int i = 0; i < 10; i++) {
+                pages.add(this.touch(repo.alloc()));
+            }
+            for(Page page : pages) {
+                repo.free(page);
+            }
+            commits.set(0);
+            for(int i = 0; i < 10; i++) {
+                repo.alloc().close();
+            }
+            Assert.assertEquals(0, commits.get());
+            repo.commit();
+            Assert.assertEquals(1, commits.get());
+        }
+    }
+
+    @Test
+    public void shouldNotHandOutPageInUseAfterCrash() throws Exception {
+        Storage storage = new MemoryStorage();
+        Set<Long> inUse = new HashSet<>();
+
+        Repository repo = this.create(storage);
+        List<Page> pages = new ArrayList<>();
+        for(int i = 0; i < 10; i++) {
+            pages.add(this.touch(repo.alloc()));
+        }
+        for(Page page : pages) {
+            repo.free(page);
+        }
+        repo.commit();
+        for(int i = 0; i < 4; i++) {
+            inUse.add(this.touch(repo.alloc()).address());
+        }
+        // reopen without closing
+
+        try(Repository reopened = this.open(storage)){
+            for(int i = 0; i < 10; i++) {
+                long address = reopened.alloc().address();
+                Assert.assertFalse("Page " + address + " handed out twice", inUse.contains(address));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBeAbleToFreePageTwice() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            Repository repo = this.create(storage)){
+            Page page = this.touch(repo.alloc());
+            repo.free(page);
+            repo.free(page);
+        }
+    }
+
+    protected Repository create(Storage storage) {
+        ExpandOnlyRepo repo = new ExpandOnlyRepo(storage, PAGE_LEN, 1);
+        long root;
+        try(Page page = repo.alloc()){
+            root = page.address();
+        }
+        return new BitmapRepo(repo, root, PAGE_LEN);
+    }
+
+    protected Repository open(Storage storage) {
+        return new BitmapRepo(new ExpandOnlyRepo(storage, PAGE_LEN, 1), 0L, PAGE_LEN);
+    }
+
+    protected Page touch(Page page) {
+        page.putLong(0, page.address());
+        page.close();
+        return page;
+    }
+
+    private static final int PAGE_LEN = 64;
+
+}
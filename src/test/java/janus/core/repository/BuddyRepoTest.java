@@ -0,0 +1,234 @@
+package janus.core.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import janus.core.page.Page;
+import janus.core.storage.MemoryStorage;
+import janus.core.storage.Storage;
+import janus.core.util.Extent;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BuddyRepoTest {
+
+    @Test
+    public void shouldAllocateContiguousAlignedRuns() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            BuddyRepo repo = this.create(storage)){
+            Extent<Page> run = repo.alloc(4);
+            Assert.assertEquals(4, run.count());
+            long arena = run.address();
+            for(int i = 0; i < run.count(); i++) {
+                Assert.assertEquals(arena + i * PAGE_LEN, run.page(i).address());
+            }
+
+            Extent<Page> run2 = repo.alloc(3);
+            Assert.assertEquals(arena + 4 * PAGE_LEN, run2.address());
+            // the unused tail of the block is handed out next
+            Assert.assertEquals(arena + 7 * PAGE_LEN, repo.alloc().address());
+            Assert.assertEquals(arena + 8 * PAGE_LEN, repo.alloc(8).address());
+        }
+    }
+
+    @Test
+    public void shouldMergeBuddiesOnFree() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            BuddyRepo repo = this.create(storage)){
+            List<Page> pages = new ArrayList<>();
+            for(int i = 0; i < 1 << MAX_ORDER; i++) {
+                pages.add(this.touch(repo.alloc()));
+            }
+            long arena = pages.get(0).address();
+            Assert.assertEquals(0, repo.available(MAX_ORDER));
+
+            for(int i = pages.size() - 1; i >= 0; i--) {
+                repo.free(pages.get(i));
+            }
+            Assert.assertEquals(1, repo.available(MAX_ORDER));
+            for(int k = 0; k < MAX_ORDER; k++) {
+                Assert.assertEquals(0, repo.available(k));
+            }
+
+            Extent<Page> run = repo.alloc(1 << MAX_ORDER);
+            Assert.assertEquals(arena, run.address());
+            Assert.assertEquals(arena, run.page(0).getLong(0));
+        }
+    }
+
+    @Test
+    public void shouldFetchRunWithSingleRead() throws Exception {
+        AtomicInteger reads = new AtomicInteger(0);
+        Storage storage = new MemoryStorage();
+        try(BuddyRepo repo = this.create(new Storage() {
+
+                @Override
+                public void write(long at, byte[] data, int off, int len) {
+                    storage.write(at, data, off, len);
+                }
+
+                @Override
+                public void read(long at, byte[] data, int off, int len) {
+                    reads.incrementAndGet();
+                    storage.read(at, data, off, len);
+                }
+
+                @Override
+                public void read(long at, byte[][] data) {
+                    reads.incrementAndGet();
+                    long pos = at;
+                    for(byte[] d : data) {
+                        storage.read(pos, d, 0, d.length);
+                        pos += d.length;
+                    }
+                }
+
+                @Override
+                public void close() throws Exception {
+                    storage.close();
+                }
+
+            })){
+            Extent<Page> run = repo.alloc(8);
+            long address = run.address();
+            for(int i = 0; i < run.count(); i++) {
+                this.touch(run.page(i));
+            }
+
+            reads.set(0);
+            List<Page> fetched = repo.fetch(address, 8);
+            Assert.assertEquals(1, reads.get());
+            for(int i = 0; i < fetched.size(); i++) {
+                Assert.assertEquals(address + i * PAGE_LEN, fetched.get(i).getLong(0));
+            }
+        }
+    }
+
+    @Test
+    public void shouldRestoreFreeBlocksAfterReopen() throws Exception {
+        Storage storage = new MemoryStorage();
+        long address;
+        try(BuddyRepo repo = this.create(storage)){
+            Extent<Page> run = repo.alloc(8);
+            address = run.address();
+            for(int i = 0; i < run.count(); i++) {
+                repo.free(this.touch(run.page(i)));
+            }
+            Assert.assertEquals(1, repo.available(MAX_ORDER));
+        }
+
+        try(BuddyRepo repo = this.open(storage)){
+            Assert.assertEquals(1, repo.available(MAX_ORDER));
+            Assert.assertEquals(address, repo.alloc(2).address());
+            Assert.assertEquals(1, repo.available(1));
+            Assert.assertEquals(1, repo.available(2));
+        }
+    }
+
+    @Test
+    public void shouldPersistOnlyWhenFreeBlockIsHandedOut() throws Exception {
+        Storage storage = new MemoryStorage();
+        try(BuddyRepo repo = this.create(storage)){
+            // carved from a new arena, nothing on the persistent free lists is taken
+            repo.alloc(4);
+            Assert.assertEquals(0, this.root(storage).getInt(BuddyRepo.IDX_ARENAS));
+
+            repo.alloc();
+            Page root = this.root(storage);
+            Assert.assertEquals(1, root.getInt(BuddyRepo.IDX_ARENAS));
+            // blocks of 8, 2 and 1 pages left
+            Assert.assertEquals(3, root.getInt(BuddyRepo.IDX_BLOCKS));
+        }
+    }
+
+    @Test
+    public void shouldForceStorageOnlyOnCommit() throws Exception {
+        AtomicInteger commits = new AtomicInteger(0);
+        Storage storage = new MemoryStorage() {
+
+            @Override
+            public void commit() {
+                commits.incrementAndGet();
+            }
+
+        };
+        try(BuddyRepo repo = this.create(storage)){
+            for(int i = 0; i < 1 << MAX_ORDER; i++) {
+                this.touch(repo.alloc());
+            }
+            Assert.assertEquals(0, commits.get());
+            repo.commit();
+            Assert.assertEquals(1, commits.get());
+        }
+    }
+
+    @Test
+    public void shouldSpillFreeBlocksNotFittingInRootPage() throws Exception {
+        Storage storage = new MemoryStorage();
+        Set<Long> freed = new TreeSet<>();
+        try(BuddyRepo repo = this.create(storage)){
+            List<Page> pages = new ArrayList<>();
+            for(int i = 0; i < 4 << MAX_ORDER; i++) {
+                pages.add(this.touch(repo.alloc()));
+            }
+            for(int i = 0; i < pages.size(); i += 2) {
+                freed.add(pages.get(i).address());
+                repo.free(pages.get(i));
+            }
+            Assert.assertEquals(freed.size(), repo.available(0));
+        }
+        Assert.assertTrue(this.root(storage).getLong(BuddyRepo.IDX_NEXT) >= 0);
+
+        try(BuddyRepo repo = this.open(storage)){
+            Assert.assertEquals(freed.size(), repo.available(0));
+            Set<Long> reused = new TreeSet<>();
+            for(int i = 0; i < freed.size(); i++) {
+                reused.add(repo.alloc().address());
+            }
+            Assert.assertEquals(freed, reused);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBeAbleToFreePageTwice() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            BuddyRepo repo = this.create(storage)){
+            Extent<Page> run = repo.alloc(2);
+            Page page = this.touch(run.page(0));
+            repo.free(page);
+            repo.free(this.touch(run.page(1)));
+            repo.free(page);
+        }
+    }
+
+    protected BuddyRepo create(Storage storage) {
+        ExpandOnlyRepo repo = new ExpandOnlyRepo(storage, PAGE_LEN, 1);
+        long root;
+        try(Page page = repo.alloc()){
+            root = page.address();
+        }
+        return new BuddyRepo(repo, root, PAGE_LEN, MAX_ORDER);
+    }
+
+    protected BuddyRepo open(Storage storage) {
+        return new BuddyRepo(new ExpandOnlyRepo(storage, PAGE_LEN, 1), 0L, PAGE_LEN, MAX_ORDER);
+    }
+
+    protected Page root(Storage storage) {
+        return new ExpandOnlyRepo(storage, PAGE_LEN, 1).fetch(0L);
+    }
+
+    protected Page touch(Page page) {
+        page.putLong(0, page.address());
+        page.close();
+        return page;
+    }
+
+    private static final int PAGE_LEN = 128;
+
+    private static final int MAX_ORDER = 4;
+
+}
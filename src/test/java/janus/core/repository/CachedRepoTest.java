@@ -0,0 +1,111 @@
+package janus.core.repository;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import janus.core.page.Page;
+import janus.core.storage.FileStorage;
+import janus.core.storage.MemoryStorage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CachedRepoTest {
+    
+    @Test
+    public void shouldServeRepeatedFetchFromCache() throws Exception {
+        String str = "Pecunia non olet.";
+        AtomicInteger reads = new AtomicInteger(0);
+        MemoryStorage storage = new MemoryStorage() {
+
+            @Override
+            public synchronized void read(long at, byte[] data, int off, int len) {
+                reads.incrementAndGet();
+                super.read(at, data, off, len);
+            }
+            
+        };
+        try(ExpandOnlyRepo base = new ExpandOnlyRepo(storage, 1024, 1);
+            CachedRepo repo = new CachedRepo(base, 4)){
+            try(Page page = repo.alloc()){
+                page.write(0, str.getBytes());
+            }
+            int before = reads.get();
+            for(int i = 0; i < 10; i++) {
+                try(Page page = repo.fetch(0)){
+                    Assert.assertEquals(str, new String(page.read(0, str.length())));
+                }
+            }
+            Assert.assertEquals(before, reads.get());
+        }
+    }
+    
+    @Test
+    public void shouldWriteBackDirtyPageOnEviction() throws Exception {
+        String str = "Pecunia non olet.";
+        MemoryStorage storage = new MemoryStorage();
+        try(ExpandOnlyRepo base = new ExpandOnlyRepo(storage, 1024, 1);
+            CachedRepo repo = new CachedRepo(base, 2)){
+            for(int i = 0; i < 4; i++) {
+                try(Page page = repo.alloc()){
+                    page.write(0, (str + i).getBytes());
+                }
+            }
+            try(Page page = base.fetch(1024)){
+                Assert.assertEquals(str + 1, new String(page.read(0, str.length() + 1)));
+            }
+            for(int i = 0; i < 4; i++) {
+                try(Page page = repo.fetch(i * 1024L)){
+                    Assert.assertEquals(str + i, new String(page.read(0, str.length() + 1)));
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void shouldWriteBackDirtyPagesOnClose() throws Exception {
+        String str = "Pecunia non olet.";
+        MemoryStorage storage = new MemoryStorage();
+        try(CachedRepo repo = new CachedRepo(new ExpandOnlyRepo(storage, 1024, 1), 16)){
+            try(Page page = repo.alloc(); Page page1 = repo.alloc()){
+                page1.write(0, str.getBytes());
+            }
+        }
+        Assert.assertEquals(str, new String(storage.read(1024, str.length())));
+    }
+    
+    @Test
+    public void shouldWriteBackFreshPageOnFree() throws Exception {
+        File tempFile = File.createTempFile("tmp", ".bin");
+        try(RandomAccessFile file = new RandomAccessFile(tempFile, "rw")){
+            // header of a new repository is read as zeros
+            file.setLength(1024);
+        }
+        try(ExpandOnlyRepo base = new ExpandOnlyRepo(FileStorage.of(tempFile), 1024, 1)) {
+            long root;
+            try(Page page = base.alloc()){
+                root = page.address();
+            }
+            try(CachedRepo repo = new CachedRepo(new RecyclePageRepo(base, root, 4), 16)){
+                List<Page> pages = new ArrayList<>();
+                for(int i = 0; i < 8; i++) {
+                    pages.add(repo.alloc());
+                }
+                for(Page page : pages) {
+                    repo.free(page);
+                }
+                // freed pages are recycled from the file
+                for(int i = 0; i < 8; i++) {
+                    try(Page page = repo.alloc()){
+                        Assert.assertTrue(page.address() <= 8 * 1024L);
+                    }
+                }
+            }
+        } finally {
+            tempFile.deleteOnExit();
+        }
+    }
+
+}
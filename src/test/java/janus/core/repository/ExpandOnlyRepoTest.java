@@ -1,11 +1,16 @@
 package janus.core.repository;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import janus.core.page.Page;
 import janus.core.storage.MemoryStorage;
 import janus.core.storage.Storage;
+import janus.core.util.Extent;
 import janus.core.util.SizeOf;
 import org.junit.Assert;
 import org.junit.Test;
@@ -25,6 +30,39 @@ public class ExpandOnlyRepoTest {
         Assert.assertEquals(0L, image.getLong(2 * SizeOf.INT.length));
     }
     
+    @Test
+    public void shouldForceStorageOnCommit() throws Exception {
+        List<String> events = new ArrayList<>();
+        Storage storage = new MemoryStorage() {
+
+            @Override
+            public synchronized void write(long at, byte[] data, int off, int len) {
+                super.write(at, data, off, len);
+                events.add("write " + at);
+            }
+
+            @Override
+            public void commit() {
+                events.add("commit");
+            }
+            
+        };
+        try(ExpandOnlyRepo repo = new ExpandOnlyRepo(storage, 1024, 1)){
+            repo.alloc();
+            events.clear();
+            try(Page page = repo.alloc()){
+                page.putLong(0, 1L);
+            }
+            repo.commit();
+            // size persisted before the page is written
+            Assert.assertEquals(Arrays.asList("write 0", "write 1024", "commit"), events);
+            
+            events.clear();
+            repo.commit();
+            Assert.assertEquals(Arrays.asList("commit"), events);
+        }
+    }
+    
     @Test
     public void shouldBeAbleToExpandWithPageLength() {
         ByteBuffer image = ByteBuffer.wrap(this.afterTask(storage -> {
@@ -39,24 +77,131 @@ public class ExpandOnlyRepoTest {
     }
     
     @Test
-    public void shouldSyncSizeAfterEachAllocation() {
+    public void shouldSyncSizeOnCommit() {
         byte[] mem = new byte[4096];
         ByteBuffer image = ByteBuffer.wrap(this.afterTask(mem, storage -> {
             try(ExpandOnlyRepo repo = new ExpandOnlyRepo(storage, 1024, 1)){
                 Assert.assertEquals(0, repo.alloc().address());
-                Assert.assertEquals(1 * 1024L, ByteBuffer.wrap(mem).getLong(2 * SizeOf.INT.length));
-                
                 Assert.assertEquals(1024, repo.alloc().address());
+                Assert.assertEquals(0L, ByteBuffer.wrap(mem).getLong(2 * SizeOf.INT.length));
+                
+                repo.commit();
                 Assert.assertEquals(2 * 1024L, ByteBuffer.wrap(mem).getLong(2 * SizeOf.INT.length));
                 
                 Assert.assertEquals(2048, repo.alloc().address());
-                Assert.assertEquals(3 * 1024L, ByteBuffer.wrap(mem).getLong(2 * SizeOf.INT.length));
             }
         }));                
         
         Assert.assertEquals(3 * 1024L, image.getLong(2 * SizeOf.INT.length));
     }
     
+    @Test
+    public void shouldSyncSizeBeforeWritingPageBeyondIt() {
+        byte[] mem = new byte[4096];
+        this.afterTask(mem, storage -> {
+            try(ExpandOnlyRepo repo = new ExpandOnlyRepo(storage, 1024, 1)){
+                Page page = repo.alloc();
+                Page page1 = repo.alloc();
+                Assert.assertEquals(0L, ByteBuffer.wrap(mem).getLong(2 * SizeOf.INT.length));
+                
+                page1.write(0, "Pecunia non olet.".getBytes());
+                page1.close();
+                Assert.assertEquals(2 * 1024L, ByteBuffer.wrap(mem).getLong(2 * SizeOf.INT.length));
+                
+                page.write(0, "Pecunia non olet.".getBytes());
+                page.close();
+                Assert.assertEquals(ExpandOnlyRepo.FLAG, ByteBuffer.wrap(mem).getInt(0));
+                Assert.assertEquals(2 * 1024L, ByteBuffer.wrap(mem).getLong(2 * SizeOf.INT.length));
+            }
+        });
+    }
+    
+    @Test
+    public void shouldAllocateContiguousPagesWithSingleHeaderUpdate() {
+        AtomicInteger writes = new AtomicInteger(0);
+        ByteBuffer image = ByteBuffer.wrap(this.afterTask(storage -> {
+            try(ExpandOnlyRepo repo = new ExpandOnlyRepo(new Storage() {
+
+                @Override
+                public void write(long at, byte[] data, int off, int len) {
+                    writes.incrementAndGet();
+                    storage.write(at, data, off, len);
+                }
+
+                @Override
+                public void read(long at, byte[] data, int off, int len) {
+                    storage.read(at, data, off, len);
+                }
+
+                @Override
+                public void close() throws Exception {
+                    storage.close();
+                }
+                
+            }, 1024, 1)){
+                Assert.assertEquals(0, repo.alloc().address());
+                int before = writes.get();
+                Extent<Page> pages = repo.alloc(100);
+                // one write extending the storage, one for the header
+                repo.commit();
+                Assert.assertEquals(before + 2, writes.get());
+                Assert.assertEquals(100, pages.count());
+                for(int i = 0; i < pages.count(); i++) {
+                    Assert.assertEquals((i + 1) * 1024L, pages.address(i));
+                }
+                try(Page page = repo.fetch(pages.address(99))){
+                    Assert.assertEquals(0L, page.getLong(0));
+                }
+                Assert.assertEquals(101 * 1024L, repo.alloc().address());
+            }
+        }));
+        
+        Assert.assertEquals(102 * 1024L, image.getLong(2 * SizeOf.INT.length));
+    }
+    
+    @Test
+    public void shouldWriteBackOnlyDirtyBytesOfFetchedPage() {
+        List<Integer> writes = new ArrayList<>();
+        ByteBuffer image = ByteBuffer.wrap(this.afterTask(storage -> {
+            try(ExpandOnlyRepo repo = new ExpandOnlyRepo(new Storage() {
+
+                @Override
+                public void write(long at, byte[] data, int off, int len) {
+                    writes.add(len);
+                    storage.write(at, data, off, len);
+                }
+
+                @Override
+                public void read(long at, byte[] data, int off, int len) {
+                    storage.read(at, data, off, len);
+                }
+
+                @Override
+                public void close() throws Exception {
+                    storage.close();
+                }
+                
+            }, 256, 4)){
+                try(Page page = repo.alloc()){
+                    page.putLong(0, 1L);
+                }
+                try(Page page = repo.alloc()){
+                    page.putLong(0, 2L);
+                }
+                repo.commit();
+                
+                writes.clear();
+                try(Page page = repo.fetch(1024)){
+                    Assert.assertEquals(2L, page.getLong(0));
+                    page.putLong(600, 3L);
+                }
+                Assert.assertEquals(Arrays.asList(SizeOf.LONG.length), writes);
+            }
+        }));
+        
+        Assert.assertEquals(3L, image.getLong(1024 + 600));
+    }
+    
     @Test
     public void shouldBeAbleToLinkPageToStorage() {
         String str = "Pecunia non olet.";
@@ -1,12 +1,168 @@
 package janus.core.repository;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import janus.core.page.Page;
+import janus.core.storage.MemoryStorage;
+import janus.core.storage.Storage;
+import janus.core.util.SizeOf;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class RecyclePageRepoTest {
-    
+
+    @Test
+    public void shouldRecycleFreedPageBeforeExpanding() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            Repository repo = this.create(storage, 4)){
+            Page page = this.touch(repo.alloc());
+            Page page2 = this.touch(repo.alloc());
+            Assert.assertEquals(1024L, page.address());
+            Assert.assertEquals(2048L, page2.address());
+
+            repo.free(page2);
+            repo.free(page);
+
+            try(Page recycled = repo.alloc()){
+                Assert.assertEquals(1024L, recycled.address());
+                Assert.assertEquals(1024L, recycled.getLong(0));
+            }
+            Assert.assertEquals(2048L, repo.alloc().address());
+            Assert.assertEquals(3072L, repo.alloc().address());
+        }
+    }
+
+    @Test
+    public void shouldReuseFreedPagesAfterReopen() throws Exception {
+        Storage storage = new MemoryStorage();
+        try(Repository repo = this.create(storage, 4)){
+            List<Page> pages = new ArrayList<>();
+            for(int i = 0; i < 10; i++) {
+                pages.add(this.touch(repo.alloc()));
+            }
+            for(Page page : pages) {
+                repo.free(page);
+            }
+        }
+
+        try(Repository repo = this.open(storage, 4)){
+            Set<Long> addresses = new HashSet<>();
+            for(int i = 0; i < 10; i++) {
+                addresses.add(repo.alloc().address());
+            }
+            for(int i = 0; i < 10; i++) {
+                Assert.assertTrue(addresses.contains((i + 1) * 1024L));
+            }
+            Assert.assertEquals(11 * 1024L, repo.alloc().address());
+        }
+    }
+
+    @Test
+    public void shouldKeepFreedPagesBeyondOnePage() throws Exception {
+        Storage storage = new MemoryStorage();
+        int num = 500;
+        try(Repository repo = this.create(storage, 16)){
+            List<Page> pages = new ArrayList<>();
+            for(int i = 0; i < num; i++) {
+                pages.add(this.touch(repo.alloc()));
+            }
+            for(Page page : pages) {
+                repo.free(page);
+            }
+        }
+
+        try(Repository repo = this.open(storage, 16)){
+            Set<Long> addresses = new HashSet<>();
+            for(int i = 0; i < num; i++) {
+                Assert.assertTrue(addresses.add(repo.alloc().address()));
+            }
+            for(int i = 0; i < num; i++) {
+                Assert.assertTrue(addresses.contains((i + 1) * 1024L));
+            }
+            Assert.assertEquals((num + 1) * 1024L, repo.alloc().address());
+        }
+    }
+
     @Test
-    public void test() {
-        System.out.println(RecyclePageRepo.SingleNodeSet.serialVersionUID % Integer.MAX_VALUE);
+    public void shouldNotHandOutPageInUseAfterCrash() throws Exception {
+        Storage storage = new MemoryStorage();
+        Set<Long> inUse = new HashSet<>();
+
+        Repository repo = this.create(storage, 4);
+        List<Page> pages = new ArrayList<>();
+        for(int i = 0; i < 12; i++) {
+            pages.add(this.touch(repo.alloc()));
+        }
+        for(Page page : pages) {
+            repo.free(page);
+        }
+        for(int i = 0; i < 6; i++) {
+            inUse.add(this.touch(repo.alloc()).address());
+        }
+        // reopen without closing
+
+        try(Repository reopened = this.open(storage, 4)){
+            for(int i = 0; i < 12; i++) {
+                long address = reopened.alloc().address();
+                Assert.assertFalse("Page " + address + " handed out twice", inUse.contains(address));
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotGrowUnderChurn() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            Repository repo = this.create(storage, 8)){
+            List<Page> pages = new ArrayList<>();
+            for(int round = 0; round < 200; round++) {
+                for(int i = 0; i < 20; i++) {
+                    pages.add(this.touch(repo.alloc()));
+                }
+                for(Page page : pages) {
+                    repo.free(page);
+                }
+                pages.clear();
+            }
+            Set<Long> addresses = new HashSet<>();
+            for(int i = 0; i < 20; i++) {
+                addresses.add(repo.alloc().address());
+            }
+            for(int i = 0; i < 20; i++) {
+                Assert.assertTrue(addresses.contains((i + 1) * 1024L));
+            }
+            Assert.assertEquals(21 * 1024L, repo.alloc().address());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBeAbleToFreeRootPage() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            Repository repo = this.create(storage, 4)){
+            repo.free(repo.fetch(0L));
+        }
+    }
+
+    protected Repository create(Storage storage, int cacheLimit) {
+        ExpandOnlyRepo repo = new ExpandOnlyRepo(storage, 256, 4);
+        long root;
+        try(Page page = repo.alloc()){
+            root = page.address();
+        }
+        return new RecyclePageRepo(repo, root, cacheLimit);
+    }
+
+    protected Repository open(Storage storage, int cacheLimit) {
+        return new RecyclePageRepo(new ExpandOnlyRepo(storage, 256, 4), 0L, cacheLimit);
+    }
+
+    protected Page touch(Page page) {
+        page.putLong(0, page.address());
+        page.putLong(page.length() - SizeOf.LONG.length, page.address());
+        page.close();
+        return page;
     }
 
 }
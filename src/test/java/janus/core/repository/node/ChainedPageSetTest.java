@@ -0,0 +1,92 @@
+package janus.core.repository.node;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import janus.core.page.Page;
+import janus.core.repository.ExpandOnlyRepo;
+import janus.core.repository.Repository;
+import janus.core.storage.MemoryStorage;
+import janus.core.storage.Storage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChainedPageSetTest {
+    
+    @Test
+    public void shouldPopLastPushedFirst() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            Repository repo = new ExpandOnlyRepo(storage, 256, 4)){
+            LongSet set = new ChainedPageSet(repo, repo.alloc());
+            Assert.assertTrue(set.isEmpty());
+            set.push(1024L);
+            set.push(2048L);
+            Assert.assertFalse(set.isEmpty());
+            Assert.assertFalse(set.isFull());
+            Assert.assertEquals(2048L, set.pop());
+            Assert.assertEquals(1024L, set.pop());
+            Assert.assertEquals(-1L, set.pop());
+        }
+    }
+    
+    @Test
+    public void shouldChainItemsBeyondOnePage() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            Repository repo = new ExpandOnlyRepo(storage, 64, 1)){
+            List<Long> items = this.freePages(repo, 100);
+            LongSet set = new ChainedPageSet(repo, repo.fetch(0L));
+            for(long item : items) {
+                set.push(item);
+            }
+            for(int i = items.size() - 1; i >= 0; i--) {
+                Assert.assertEquals((long) items.get(i), set.pop());
+            }
+            Assert.assertTrue(set.isEmpty());
+        }
+    }
+    
+    @Test
+    public void shouldKeepItemsAfterReopen() throws Exception {
+        Storage storage = new MemoryStorage();
+        List<Long> items;
+        try(Repository repo = new ExpandOnlyRepo(storage, 64, 1)){
+            items = this.freePages(repo, 50);
+            LongSet set = new ChainedPageSet(repo, repo.fetch(0L));
+            for(long item : items) {
+                set.push(item);
+            }
+            set.pop();
+        }
+        try(Repository repo = new ExpandOnlyRepo(storage, 64, 1)){
+            LongSet set = new ChainedPageSet(repo, repo.fetch(0L));
+            for(int i = items.size() - 2; i >= 0; i--) {
+                Assert.assertEquals((long) items.get(i), set.pop());
+            }
+            Assert.assertTrue(set.isEmpty());
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBeAbleToPushHeadPage() throws Exception {
+        try(Storage storage = new MemoryStorage();
+            Repository repo = new ExpandOnlyRepo(storage, 256, 4)){
+            Page head = repo.alloc();
+            new ChainedPageSet(repo, head).push(head.address());
+        }
+    }
+    
+    protected List<Long> freePages(Repository repo, int num) {
+        List<Long> items = new ArrayList<>();
+        try(Page root = repo.alloc()){
+            Assert.assertEquals(0L, root.address());
+        }
+        for(int i = 0; i < num; i++) {
+            try(Page page = repo.alloc()){
+                items.add(page.address());
+            }
+        }
+        repo.commit();
+        return items;
+    }
+
+}
@@ -43,6 +43,55 @@ public class SinglePageSetTest {
         Assert.assertArrayEquals(new long[]{11L, 13L, 15L, 17L}, items) ;
     }
     
+    @Test
+    public void shouldRewriteLiveItemsWhenLogIsFull() {
+        byte[] mem = new byte[SinglePageSet.HEADER_LEN + 8 * SizeOf.LONG.length];
+        try(Page page = this.mockPage(Short.MAX_VALUE, mem)){
+            LongSet set = new SinglePageSet(page, 0);
+            for(int i = 0; i < 5; i++) {
+                set.push(100L + i);
+                Assert.assertEquals(100L + i, set.pop());
+            }
+            set.push(7L);
+            set.push(3L);
+        }
+        // 12 entries logged, rewritten to 1 live item on the 9th
+        Assert.assertEquals(4, ByteBuffer.wrap(mem).getInt(SizeOf.INT.length));
+        
+        try(Page page = this.mockPage(Short.MAX_VALUE, mem)){
+            LongSet set = new SinglePageSet(page, 0);
+            Assert.assertEquals(3L, set.pop());
+            Assert.assertEquals(7L, set.pop());
+            Assert.assertTrue(set.isEmpty());
+        }
+    }
+    
+    @Test
+    public void shouldCompactLogOfMostlyObsoleteEntries() {
+        byte[] mem = new byte[SinglePageSet.HEADER_LEN + 1024 * SizeOf.LONG.length];
+        try(Page page = this.mockPage(Short.MAX_VALUE, mem)){
+            LongSet set = new SinglePageSet(page, 0);
+            for(int i = 1; i <= 10; i++) {
+                set.push(1000L + i);
+            }
+            for(int i = 0; i < 500; i++) {
+                set.push(100L + i);
+                Assert.assertEquals(100L + i, set.pop());
+            }
+        }
+        // 1010 entries logged, never more than the threshold kept
+        int count = ByteBuffer.wrap(mem).getInt(SizeOf.INT.length);
+        Assert.assertTrue(count < SinglePageSet.MIN_COMPACT_LEN);
+        
+        try(Page page = this.mockPage(Short.MAX_VALUE, mem)){
+            LongSet set = new SinglePageSet(page, 0);
+            for(int i = 1; i <= 10; i++) {
+                Assert.assertEquals(1000L + i, set.pop());
+            }
+            Assert.assertTrue(set.isEmpty());
+        }
+    }
+    
     protected Page mockPage(long addr, byte[] mem) {        
         return new Page() {
 
@@ -0,0 +1,121 @@
+package janus.core.storage;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncFileStorageTest {
+    
+    @Test
+    public void shouldBeAbleToReadAndWriteData() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        
+        String str = "This is a test string.";
+        
+        try(Storage storage = AsyncFileStorage.of(file)){
+            storage.write(0, str.getBytes());
+            Assert.assertArrayEquals(str.getBytes(), storage.read(0, str.length()));
+        } finally {
+            file.deleteOnExit();
+        }
+        
+        Assert.assertEquals(str.length(), file.length());
+    }
+    
+    @Test
+    public void shouldBeAbleToKeepManyOperationsInFlight() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        
+        int len = 512;
+        int count = 256;
+        
+        try(Storage storage = AsyncFileStorage.of(file, Durability.COMMIT, 8)){
+            CompletableFuture<?>[] writes = new CompletableFuture<?>[count];
+            for(int i = 0; i < count; i++) {
+                byte[] data = new byte[len];
+                Arrays.fill(data, (byte) i);
+                writes[i] = storage.writeAsync((long) i * len, data);
+            }
+            CompletableFuture.allOf(writes).join();
+            storage.commit();
+            
+            @SuppressWarnings("unchecked")
+            CompletableFuture<byte[]>[] reads = new CompletableFuture[count];
+            for(int i = 0; i < count; i++) {
+                reads[i] = storage.readAsync((long) i * len, len);
+            }
+            for(int i = 0; i < count; i++) {
+                byte[] expected = new byte[len];
+                Arrays.fill(expected, (byte) i);
+                Assert.assertArrayEquals(expected, reads[i].get());
+            }
+        } finally {
+            file.deleteOnExit();
+        }
+        
+        Assert.assertEquals((long) count * len, file.length());
+    }
+    
+    @Test
+    public void shouldCompleteExceptionallyWhenReadingBeyondEof() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        
+        try(Storage storage = AsyncFileStorage.of(file)){
+            storage.write(0, "0123456789".getBytes());
+            storage.readAsync(1024, 10).get();
+            Assert.fail();
+        } catch(ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+    
+    @Test(timeout = 5000)
+    public void shouldFailFastAfterClose() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        file.deleteOnExit();
+        
+        Storage storage = AsyncFileStorage.of(file);
+        storage.write(0, "0123456789".getBytes());
+        storage.close();
+        storage.close();
+        
+        CompletableFuture<Void> future = storage.writeAsync(0, new byte[10]);
+        Assert.assertTrue(future.isCompletedExceptionally());
+        try {
+            storage.read(0, 10);
+            Assert.fail("Read after close");
+        } catch(IllegalStateException ex) {
+            // expected
+        }
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotBeAbleToReadBeyondEof() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        
+        try(Storage storage = AsyncFileStorage.of(file)){
+            storage.write(0, "0123456789".getBytes());
+            storage.read(1024, 10);
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+    
+    @Test(expected = RuntimeException.class)
+    public void shouldNotBeAbleToWriteNegativePositon() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        
+        try(Storage storage = AsyncFileStorage.of(file)){
+            storage.write(-1024, "0123456789".getBytes());
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+
+}
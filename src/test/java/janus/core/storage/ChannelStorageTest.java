@@ -0,0 +1,140 @@
+package janus.core.storage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChannelStorageTest {
+
+    @Test
+    public void shouldShareFileFormatWithFileStorage() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        file.deleteOnExit();
+
+        try(Storage storage = ChannelStorage.of(file)){
+            storage.write(4096, "Veni, vidi, vici.".getBytes());
+        }
+        Assert.assertEquals(4096 + 17, file.length());
+
+        try(Storage storage = FileStorage.of(file)){
+            Assert.assertArrayEquals("Veni, vidi, vici.".getBytes(), storage.read(4096, 17));
+            storage.write(0, "Alea iacta est.".getBytes());
+        }
+        try(Storage storage = ChannelStorage.of(file)){
+            Assert.assertArrayEquals("Alea iacta est.".getBytes(), storage.read(0, 15));
+        }
+    }
+
+    @Test
+    public void shouldWriteAndReadSliceOfArray() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        file.deleteOnExit();
+
+        byte[] data = "xxVeni, vidi, vici.yy".getBytes();
+        try(Storage storage = ChannelStorage.of(file)){
+            storage.write(100, data, 2, 17);
+
+            byte[] temp = new byte[21];
+            Arrays.fill(temp, (byte) '-');
+            storage.read(100, temp, 2, 17);
+            Assert.assertEquals("--Veni, vidi, vici.--", new String(temp));
+        }
+        Assert.assertEquals(117, file.length());
+    }
+
+    @Test
+    public void shouldNotLetScatteringCallsMovePositionalCalls() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        file.deleteOnExit();
+
+        try(Storage storage = ChannelStorage.of(file)){
+            storage.write(0, "0123456789".getBytes());
+            storage.write(512, new byte[][] {"abc".getBytes(), "def".getBytes()});
+
+            // the channel position is left at 518 by the gathering write
+            Assert.assertArrayEquals("234".getBytes(), storage.read(2, 3));
+            storage.write(4, "X".getBytes());
+
+            byte[][] temp = {new byte[2], new byte[4]};
+            storage.read(512, temp);
+            Assert.assertEquals("ab", new String(temp[0]));
+            Assert.assertEquals("cdef", new String(temp[1]));
+            Assert.assertEquals("0123X56789", new String(storage.read(0, 10)));
+        }
+    }
+
+    @Test
+    public void shouldServeConcurrentWritersOnDisjointRanges() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        file.deleteOnExit();
+
+        int threads = 8;
+        int blocks = 64;
+        int len = 128;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try(Storage storage = ChannelStorage.of(file)){
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0; t < threads; t++) {
+                int id = t;
+                futures.add(executor.submit(() -> {
+                    byte[] data = new byte[len];
+                    for(int b = id; b < blocks; b += threads) {
+                        Arrays.fill(data, (byte) b);
+                        storage.write((long) b * len, data);
+                        Assert.assertArrayEquals(data, storage.read((long) b * len, len));
+                    }
+                }));
+            }
+            for(Future<?> future : futures) {
+                future.get();
+            }
+            for(int b = 0; b < blocks; b++) {
+                byte[] data = storage.read((long) b * len, len);
+                for(byte value : data) {
+                    Assert.assertEquals((byte) b, value);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailToReadPastEndOfFile() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        file.deleteOnExit();
+
+        try(Storage storage = ChannelStorage.of(file)){
+            storage.write(0, new byte[10]);
+            storage.read(5, 10);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToReadNegativePosition() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        file.deleteOnExit();
+
+        try(Storage storage = ChannelStorage.of(file)){
+            storage.read(-1, 10);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToWriteNegativePosition() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        file.deleteOnExit();
+
+        try(Storage storage = ChannelStorage.of(file)){
+            storage.write(-1, new byte[10]);
+        }
+    }
+
+}
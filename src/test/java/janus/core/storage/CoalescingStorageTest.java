@@ -0,0 +1,125 @@
+package janus.core.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CoalescingStorageTest {
+    
+    @Test
+    public void shouldMergeAdjacentWritesIntoOne() throws Exception {
+        List<long[]> writes = new ArrayList<>();
+        MemoryStorage base = this.recording(writes);
+        try(Storage storage = new CoalescingStorage(base)){
+            storage.write(16, "0123456789abcdef".getBytes());
+            storage.write(0, "0123456789ABCDEF".getBytes());
+            storage.write(32, "0123456789ABCDEF".getBytes());
+            Assert.assertTrue(writes.isEmpty());
+            storage.commit();
+        }
+        Assert.assertEquals(1, writes.size());
+        Assert.assertArrayEquals(new long[] {0L, 48L}, writes.get(0));
+        Assert.assertEquals(
+            "0123456789ABCDEF0123456789abcdef0123456789ABCDEF", 
+            new String(base.getBytes()));
+    }
+    
+    @Test
+    public void shouldMergeOverlappingWritesWithLatestData() throws Exception {
+        List<long[]> writes = new ArrayList<>();
+        MemoryStorage base = this.recording(writes);
+        try(Storage storage = new CoalescingStorage(base)){
+            storage.write(0, "0123456789".getBytes());
+            storage.write(5, "abcdefghij".getBytes());
+            storage.write(2, "XY".getBytes());
+            Assert.assertEquals("01XY4abcdefghij", new String(storage.read(0, 15)));
+        }
+        Assert.assertEquals(1, writes.size());
+        Assert.assertEquals("01XY4abcdefghij", new String(base.getBytes()));
+    }
+    
+    @Test
+    public void shouldAppendSequentialWritesInPlace() throws Exception {
+        List<long[]> writes = new ArrayList<>();
+        MemoryStorage base = this.recording(writes);
+        byte[] chunk = new byte[4096];
+        try(Storage storage = new CoalescingStorage(base, 1024 * 1024)){
+            for(int i = 0; i < 255; i++) {
+                Arrays.fill(chunk, (byte) i);
+                storage.write((long) i * chunk.length, chunk);
+            }
+            Assert.assertTrue(writes.isEmpty());
+            Assert.assertEquals(100, storage.read(100L * chunk.length, 1)[0]);
+        }
+        Assert.assertEquals(1, writes.size());
+        Assert.assertArrayEquals(new long[] {0L, 255L * chunk.length}, writes.get(0));
+        
+        // the buffer of a range is reallocated a logarithmic number of times
+        CoalescingStorage.Range range = new CoalescingStorage.Range();
+        int reallocs = 0;
+        for(int i = 1; i <= 256; i++) {
+            byte[] before = range.data;
+            range.extend(i * chunk.length);
+            if(range.data != before) {
+                reallocs++;
+            }
+        }
+        Assert.assertEquals(256 * chunk.length, range.length);
+        Assert.assertEquals(9, reallocs);
+    }
+    
+    @Test
+    public void shouldKeepDisjointRangesSeparate() throws Exception {
+        List<long[]> writes = new ArrayList<>();
+        MemoryStorage base = this.recording(writes);
+        try(Storage storage = new CoalescingStorage(base)){
+            storage.write(100, "abc".getBytes());
+            storage.write(0, "xyz".getBytes());
+        }
+        Assert.assertEquals(2, writes.size());
+        Assert.assertArrayEquals(new long[] {0L, 3L}, writes.get(0));
+        Assert.assertArrayEquals(new long[] {100L, 3L}, writes.get(1));
+    }
+    
+    @Test
+    public void shouldReadBufferedDataOverBaseData() throws Exception {
+        MemoryStorage base = new MemoryStorage();
+        base.write(0, "This is a test string.".getBytes());
+        try(Storage storage = new CoalescingStorage(base)){
+            storage.write(5, "IS".getBytes());
+            storage.write(10, "TEST".getBytes());
+            Assert.assertEquals("This IS a TEST string.", new String(storage.read(0, 22)));
+            Assert.assertEquals("S a TE", new String(storage.read(6, 6)));
+            Assert.assertEquals("This is a test string.", new String(base.getBytes()));
+        }
+    }
+    
+    @Test
+    public void shouldFlushWhenThresholdReached() throws Exception {
+        List<long[]> writes = new ArrayList<>();
+        MemoryStorage base = this.recording(writes);
+        try(CoalescingStorage storage = new CoalescingStorage(base, 32)){
+            storage.write(0, new byte[16]);
+            Assert.assertTrue(writes.isEmpty());
+            storage.write(64, new byte[16]);
+            Assert.assertEquals(2, writes.size());
+            Assert.assertEquals(0L, storage.buffered());
+        }
+    }
+    
+    protected MemoryStorage recording(List<long[]> writes) {
+        return new MemoryStorage() {
+
+            @Override
+            public synchronized void write(long at, byte[] data, int off, int len) {
+                writes.add(new long[] {at, len});
+                super.write(at, data, off, len);
+            }
+            
+        };
+    }
+
+}
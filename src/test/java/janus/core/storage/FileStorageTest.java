@@ -35,6 +35,23 @@ public class FileStorageTest {
         Assert.assertEquals(str.length(), file.length());
     }
     
+    @Test
+    public void shouldBeAbleToReadAndWriteDataWithAllDurability() throws Exception {
+        String str = "This is a test string.";
+        
+        for(Durability durability : Durability.values()) {
+            File file = File.createTempFile("tmp", ".txt");
+            try(Storage storage = FileStorage.of(file, durability)){
+                storage.write(0, str.getBytes());
+                storage.commit();
+                Assert.assertArrayEquals(str.getBytes(), storage.read(0, str.length()));
+            } finally {
+                file.deleteOnExit();
+            }
+            Assert.assertEquals(str.length(), file.length());
+        }
+    }
+    
     @Test
     public void shouldBeAbleToWriteBeyondEof() throws Exception {
         File file = File.createTempFile("tmp", ".txt");
@@ -67,6 +84,43 @@ public class FileStorageTest {
         Assert.assertEquals(str.length() - 10, file.length());
     }
     
+    @Test
+    public void shouldBeAbleToScatterAndGatherData() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        
+        byte[][] data = {"This is ".getBytes(), "a test ".getBytes(), "string.".getBytes()};
+        
+        try(Storage storage = FileStorage.of(file)){
+            storage.write(1024, data);
+            Assert.assertArrayEquals("This is a test string.".getBytes(), storage.read(1024, 22));
+            
+            byte[][] temp = {new byte[4], new byte[18]};
+            storage.read(1024, temp);
+            Assert.assertArrayEquals("This".getBytes(), temp[0]);
+            Assert.assertArrayEquals(" is a test string.".getBytes(), temp[1]);
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+    
+    @Test
+    public void shouldBeAbleToScatterAndGatherWithTrailingEmptyBuffer() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        
+        byte[] data = "This is a test string.".getBytes();
+        
+        try(Storage storage = FileStorage.of(file)){
+            storage.write(0, new byte[][] {data, new byte[0]});
+            Assert.assertEquals(data.length, file.length());
+            
+            byte[] buf = new byte[data.length];
+            storage.read(0, new byte[][] {buf, new byte[0]});
+            Assert.assertArrayEquals(data, buf);
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+    
     @Test(expected = IllegalStateException.class)
     public void shouldNotBeAbleToReadBeyondEof() throws Exception {
         File file = File.createTempFile("tmp", ".txt");
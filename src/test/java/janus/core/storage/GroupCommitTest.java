@@ -0,0 +1,72 @@
+package janus.core.storage;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GroupCommitTest {
+    
+    @Test
+    public void shouldForceOnceForSingleCommitter() {
+        AtomicInteger count = new AtomicInteger(0);
+        try(GroupCommit group = new GroupCommit(count::incrementAndGet)){
+            group.commit();
+            Assert.assertEquals(1, count.get());
+            group.commit();
+            Assert.assertEquals(2, count.get());
+        }
+    }
+    
+    @Test
+    public void shouldGroupConcurrentCommits() throws Exception {
+        int threads = 16;
+        AtomicInteger count = new AtomicInteger(0);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try(GroupCommit group = new GroupCommit(() -> {
+            count.incrementAndGet();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        })){
+            for(int i = 0; i < threads; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    group.commit();
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        Assert.assertTrue("Forced " + count.get() + " times", count.get() < threads);
+    }
+    
+    @Test
+    public void shouldRetryForceAfterFailure() {
+        AtomicInteger count = new AtomicInteger(0);
+        try(GroupCommit group = new GroupCommit(() -> {
+            if(count.incrementAndGet() == 1) {
+                throw new IllegalStateException();
+            }
+        })){
+            try {
+                group.commit();
+                Assert.fail();
+            } catch(IllegalStateException ex) {
+                // expected
+            }
+            group.commit();
+            Assert.assertEquals(2, count.get());
+        }
+    }
+
+}
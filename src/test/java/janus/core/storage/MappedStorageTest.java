@@ -0,0 +1,199 @@
+package janus.core.storage;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import janus.core.util.SizeOf;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MappedStorageTest {
+
+    @Test
+    public void shouldBeAbleToReadAndWriteData() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+
+        String str = "This is a test string.";
+
+        try(Storage storage = MappedStorage.of(file)){
+            storage.write(0, str.getBytes());
+            Assert.assertArrayEquals(str.getBytes(), storage.read(0, str.length()));
+        } finally {
+            file.deleteOnExit();
+        }
+
+        Assert.assertEquals(str.length(), file.length());
+    }
+
+    @Test
+    public void shouldBeAbleToReadDataWrittenByFileStorage() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+
+        String str = "This is a test string.";
+
+        try(Storage storage = FileStorage.of(file)){
+            storage.write(1024, str.getBytes());
+        }
+        try(Storage storage = MappedStorage.of(file)){
+            Assert.assertArrayEquals(str.getBytes(), storage.read(1024, str.length()));
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+
+    @Test
+    public void shouldBeAbleToReadAndWriteAcrossSegments() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+
+        String str = "This is a test string.";
+        long at = 2 * SizeOf.BLOCK.length - 5;
+
+        try(Storage storage = MappedStorage.of(file, SizeOf.BLOCK.length)){
+            storage.write(at, str.getBytes());
+            Assert.assertArrayEquals(str.getBytes(), storage.read(at, str.length()));
+        }
+        try(Storage storage = FileStorage.of(file)){
+            Assert.assertArrayEquals(str.getBytes(), storage.read(at, str.length()));
+        } finally {
+            file.deleteOnExit();
+        }
+
+        Assert.assertEquals(at + str.length(), file.length());
+    }
+
+    @Test
+    public void shouldBeAbleToReadAndWriteDataFragment() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+
+        String str = "01234This is a test string.56789";
+
+        try(Storage storage = MappedStorage.of(file)){
+            storage.write(0, str.getBytes(), 5, str.length() - 10);
+            Assert.assertArrayEquals(
+                "This is a test string.".getBytes(),
+                storage.read(0, str.length() - 10));
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+
+    @Test
+    public void shouldNotExtendFileBeyondDataWritten() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+
+        String str = "This is a test string.";
+        long at = SizeOf.BLOCK.length + 7;
+
+        try(Storage storage = FileStorage.of(file)){
+            storage.write(0, str.getBytes());
+        }
+        try(Storage storage = MappedStorage.of(file, 2 * SizeOf.BLOCK.length)){
+            Assert.assertArrayEquals(str.getBytes(), storage.read(0, str.length()));
+            Assert.assertEquals(str.length(), file.length());
+
+            // checked before close, as if crashed
+            storage.write(at, str.getBytes());
+            Assert.assertEquals(at + str.length(), file.length());
+            storage.write(5, str.getBytes());
+            Assert.assertEquals(at + str.length(), file.length());
+            Assert.assertArrayEquals(str.getBytes(), storage.read(at, str.length()));
+            Assert.assertArrayEquals(str.getBytes(), storage.read(5, str.length()));
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+
+    @Test
+    public void shouldForceOnCommitByDurability() throws Exception {
+        String str = "This is a test string.";
+        for(Durability durability : Durability.values()) {
+            File file = File.createTempFile("tmp", ".txt");
+            AtomicInteger forces = new AtomicInteger(0);
+            try(Storage storage = new MappedStorage(new RandomAccessFile(file, durability.mode), 
+                    2 * SizeOf.BLOCK.length, durability) {
+
+                    @Override
+                    protected void force() {
+                        forces.incrementAndGet();
+                        super.force();
+                    }
+
+                }){
+                storage.write(0, str.getBytes());
+                storage.write(0, str.getBytes());
+                storage.commit();
+                if(durability != Durability.PERIODIC) {
+                    // forced in background otherwise
+                    Assert.assertEquals(durability == Durability.COMMIT ? 1 : 0, forces.get());
+                }
+                Assert.assertArrayEquals(str.getBytes(), storage.read(0, str.length()));
+            } finally {
+                file.deleteOnExit();
+            }
+            Assert.assertEquals(str.length(), file.length());
+        }
+    }
+
+    @Test
+    public void shouldRemapLogarithmicallyWhenAppending() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+        AtomicInteger mappings = new AtomicInteger(0);
+        int pageLen = SizeOf.BLOCK.length;
+        try(Storage storage = new MappedStorage(new RandomAccessFile(file, "rw"), 256 * pageLen) {
+
+                @Override
+                protected MappedByteBuffer map(long start, int len) {
+                    mappings.incrementAndGet();
+                    return super.map(start, len);
+                }
+
+            }){
+            byte[] page = new byte[pageLen];
+            for(int i = 0; i < 512; i++) {
+                Arrays.fill(page, (byte) i);
+                storage.write((long) i * pageLen, page);
+                Assert.assertArrayEquals(page, storage.read((long) i * pageLen, pageLen));
+            }
+            for(int i = 0; i < 512; i++) {
+                Arrays.fill(page, (byte) i);
+                Assert.assertArrayEquals(page, storage.read((long) i * pageLen, pageLen));
+            }
+            // 9 mappings of 1 to 256 pages for each of the 2 segments
+            Assert.assertEquals(18, mappings.get());
+            Assert.assertEquals(512L * pageLen, file.length());
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotBeAbleToReadBeyondEof() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+
+        String str = "This is a test string.";
+
+        long mega = 1024 * 1024L;
+
+        try(Storage storage = MappedStorage.of(file)){
+            storage.write(0, str.getBytes());
+            storage.read(mega, str.length());
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldNotBeAbleToWriteNegativePositon() throws Exception {
+        File file = File.createTempFile("tmp", ".txt");
+
+        try(Storage storage = MappedStorage.of(file)){
+            storage.write(-1024, "0123456789".getBytes());
+        } finally {
+            file.deleteOnExit();
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package janus.core.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapStorageTest {
+    
+    @Test
+    public void shouldBeAbleToReadAndWriteData() throws Exception {
+        String str = "This is a test string.";
+        
+        try(OffHeapStorage storage = new OffHeapStorage()){
+            storage.write(0, str.getBytes());            
+            Assert.assertArrayEquals(str.getBytes(), storage.read(0, str.length()));
+            Assert.assertEquals(str.length(), storage.size());
+        }                
+    }
+    
+    @Test
+    public void shouldBeAbleToReadAndWriteAcrossChunks() throws Exception {
+        String str = "This is a test string.";
+        
+        try(OffHeapStorage storage = new OffHeapStorage(16)){
+            storage.write(5, str.getBytes());            
+            Assert.assertArrayEquals(str.getBytes(), storage.read(5, str.length()));
+        }                
+    }
+    
+    @Test
+    public void shouldBeAbleToWriteBeyond2GB() throws Exception {
+        String str = "This is a test string.";
+        
+        long giga = 1024 * 1024 * 1024L;
+        
+        try(OffHeapStorage storage = new OffHeapStorage()){
+            storage.write(3 * giga - 5, str.getBytes());
+            storage.write(5 * giga, str.getBytes());
+            Assert.assertArrayEquals(str.getBytes(), storage.read(3 * giga - 5, str.length()));
+            Assert.assertArrayEquals(str.getBytes(), storage.read(5 * giga, str.length()));
+            Assert.assertEquals(5 * giga + str.length(), storage.size());
+        }
+    }
+    
+    @Test
+    public void shouldReadZerosFromUnwrittenRegion() throws Exception {
+        String str = "This is a test string.";
+        
+        long mega = 1024 * 1024L;
+        
+        try(Storage storage = new OffHeapStorage()){
+            storage.write(4 * mega, str.getBytes());
+            Assert.assertArrayEquals(new byte[str.length()], storage.read(mega, str.length()));
+        }
+    }
+    
+    @Test
+    public void shouldBeAbleToReadAndWriteDataFragment() throws Exception {
+        String str = "01234This is a test string.56789";
+        
+        try(Storage storage = new OffHeapStorage()){
+            storage.write(0, str.getBytes(), 5, str.length() - 10);
+            Assert.assertArrayEquals(
+                "This is a test string.".getBytes(), 
+                storage.read(0, str.length() - 10));
+        }
+    }
+    
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void shouldNotBeAbleToReadBeyondEof() throws Exception {
+        String str = "This is a test string.";
+        
+        long mega = 1024 * 1024L;
+        
+        try(Storage storage = new OffHeapStorage()){
+            storage.write(0, str.getBytes());
+            storage.read(mega, str.length());
+        }
+    }
+    
+    @Test(expected = RuntimeException.class)
+    public void shouldNotBeAbleToWriteNegativePositon() throws Exception {
+        try(Storage storage = new OffHeapStorage()){
+            storage.write(-1024, "0123456789".getBytes());
+        }
+    }
+
+}
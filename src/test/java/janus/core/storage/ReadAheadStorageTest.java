@@ -0,0 +1,85 @@
+package janus.core.storage;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import janus.core.util.ReadAhead;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReadAheadStorageTest {
+    
+    @Test
+    public void shouldServeSequentialReadsFromPrefetchedWindows() throws Exception {
+        int pageLen = 1024;
+        AtomicInteger direct = new AtomicInteger(0);
+        AtomicInteger prefetched = new AtomicInteger(0);
+        boolean[] inExecutor = {false};
+        Executor executor = r -> {
+            inExecutor[0] = true;
+            try {
+                r.run();
+            } finally {
+                inExecutor[0] = false;
+            }
+        };
+        MemoryStorage base = new MemoryStorage() {
+
+            @Override
+            public synchronized void read(long at, byte[] data, int off, int len) {
+                (inExecutor[0] ? prefetched : direct).incrementAndGet();
+                super.read(at, data, off, len);
+            }
+            
+        };
+        for(int i = 0; i < 16; i++) {
+            base.write(i * pageLen, this.page(pageLen, i));
+        }
+        
+        try(Storage storage = new ReadAheadStorage(base, pageLen, 4, executor)){
+            for(int i = 0; i < 16; i++) {
+                Assert.assertArrayEquals(this.page(pageLen, i), storage.read(i * pageLen, pageLen));
+            }
+        }
+        Assert.assertEquals(ReadAhead.DEFAULT_TRIGGER, direct.get());
+        Assert.assertTrue(prefetched.get() >= 16 - ReadAhead.DEFAULT_TRIGGER);
+    }
+    
+    @Test
+    public void shouldNotServeStaleDataAfterWrite() throws Exception {
+        int pageLen = 1024;
+        MemoryStorage base = new MemoryStorage();
+        for(int i = 0; i < 8; i++) {
+            base.write(i * pageLen, this.page(pageLen, i));
+        }
+        try(Storage storage = new ReadAheadStorage(base, pageLen, 4, Runnable::run)){
+            for(int i = 0; i < 3; i++) {
+                storage.read(i * pageLen, pageLen);
+            }
+            storage.write(3 * pageLen, this.page(pageLen, 99));
+            Assert.assertArrayEquals(this.page(pageLen, 99), storage.read(3 * pageLen, pageLen));
+        }
+    }
+    
+    @Test
+    public void shouldFallBackToBaseBeyondEnd() throws Exception {
+        int pageLen = 1024;
+        MemoryStorage base = new MemoryStorage();
+        for(int i = 0; i < 4; i++) {
+            base.write(i * pageLen, this.page(pageLen, i));
+        }
+        try(Storage storage = new ReadAheadStorage(base, pageLen, 8, Runnable::run)){
+            for(int i = 0; i < 4; i++) {
+                Assert.assertArrayEquals(this.page(pageLen, i), storage.read(i * pageLen, pageLen));
+            }
+        }
+    }
+    
+    protected byte[] page(int len, int value) {
+        byte[] page = new byte[len];
+        Arrays.fill(page, (byte) value);
+        return page;
+    }
+
+}
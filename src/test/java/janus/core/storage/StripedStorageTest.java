@@ -0,0 +1,145 @@
+package janus.core.storage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import janus.core.util.SizeOf;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StripedStorageTest {
+    
+    @Test
+    public void shouldBeAbleToReadAndWriteData() throws Exception {
+        String str = "This is a test string.";
+        
+        try(Storage storage = new StripedStorage(this.devices(3), SizeOf.BLOCK.length)){
+            storage.write(0, str.getBytes());
+            Assert.assertArrayEquals(str.getBytes(), storage.read(0, str.length()));
+        }
+    }
+    
+    @Test
+    public void shouldStripeDataAcrossDevicesInRoundRobin() throws Exception {
+        int unit = SizeOf.BLOCK.length;
+        List<MemoryStorage> devices = this.devices(3);
+        byte[] data = new byte[7 * unit];
+        for(int i = 0; i < 7; i++) {
+            Arrays.fill(data, i * unit, (i + 1) * unit, (byte) i);
+        }
+        
+        try(Storage storage = new StripedStorage(devices, unit)){
+            storage.write(0, data);
+            Assert.assertArrayEquals(data, storage.read(0, data.length));
+        }
+        
+        Assert.assertEquals(3 * unit, devices.get(0).getBytes().length);
+        Assert.assertEquals(2 * unit, devices.get(1).getBytes().length);
+        Assert.assertEquals(2 * unit, devices.get(2).getBytes().length);
+        Assert.assertEquals((byte) 0, devices.get(0).getBytes()[0]);
+        Assert.assertEquals((byte) 3, devices.get(0).getBytes()[unit]);
+        Assert.assertEquals((byte) 6, devices.get(0).getBytes()[2 * unit]);
+        Assert.assertEquals((byte) 4, devices.get(1).getBytes()[unit]);
+        Assert.assertEquals((byte) 5, devices.get(2).getBytes()[unit]);
+    }
+    
+    @Test
+    public void shouldBeAbleToReadAndWriteUnalignedRange() throws Exception {
+        int unit = SizeOf.BLOCK.length;
+        byte[] data = new byte[5 * unit + 123];
+        new Random(unit).nextBytes(data);
+        
+        try(Storage storage = new StripedStorage(this.devices(4), unit)){
+            storage.write(unit - 7, data);
+            Assert.assertArrayEquals(data, storage.read(unit - 7, data.length));
+            Assert.assertArrayEquals(
+                Arrays.copyOfRange(data, 100, 2 * unit), 
+                storage.read(unit - 7 + 100, 2 * unit - 100));
+        }
+    }
+    
+    @Test(timeout = 10000)
+    public void shouldTransferPiecesOfDifferentDevicesInParallel() throws Exception {
+        int unit = SizeOf.BLOCK.length;
+        int count = 3;
+        // every device waits for the others inside its write, so only overlapping pieces pass
+        CyclicBarrier barrier = new CyclicBarrier(count);
+        List<MemoryStorage> devices = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            devices.add(new MemoryStorage() {
+
+                @Override
+                public void write(long at, byte[] data, int off, int len) {
+                    try {
+                        barrier.await(5, TimeUnit.SECONDS);
+                    } catch(Exception ex) {
+                        throw new IllegalStateException("Pieces are not transferred in parallel.", ex);
+                    }
+                    super.write(at, data, off, len);
+                }
+                
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        byte[] data = new byte[count * unit];
+        new Random(unit).nextBytes(data);
+        try(Storage storage = new StripedStorage(devices, unit, executor)){
+            storage.write(0, data);
+            Assert.assertArrayEquals(data, storage.read(0, data.length));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void shouldBeAbleToStripeAcrossFiles() throws Exception {
+        List<File> files = new ArrayList<>();
+        for(int i = 0; i < 2; i++) {
+            File file = File.createTempFile("tmp", ".txt");
+            file.deleteOnExit();
+            files.add(file);
+        }
+        int unit = SizeOf.BLOCK.length;
+        byte[] data = new byte[3 * unit];
+        new Random(unit).nextBytes(data);
+        try(Storage storage = StripedStorage.of(files, unit)){
+            storage.write(0, data);
+            Assert.assertArrayEquals(data, storage.read(0, data.length));
+        }
+        Assert.assertEquals(2L * unit, files.get(0).length());
+        Assert.assertEquals(unit, files.get(1).length());
+    }
+    
+    @Test
+    public void shouldReturnFailedFutureForNegativePosition() throws Exception {
+        try(Storage storage = new StripedStorage(this.devices(2), SizeOf.BLOCK.length)){
+            CompletableFuture<Void> future = storage.writeAsync(-1, new byte[10]);
+            Assert.assertTrue(future.isCompletedExceptionally());
+            Assert.assertTrue(storage.readAsync(-1, new byte[10], 0, 10).isCompletedExceptionally());
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptStripeNotAlignedToBlock() throws Exception {
+        try(Storage storage = new StripedStorage(this.devices(2), 1000)){
+            
+        }
+    }
+    
+    protected List<MemoryStorage> devices(int count) {
+        MemoryStorage[] devices = new MemoryStorage[count];
+        for(int i = 0; i < count; i++) {
+            devices[i] = new MemoryStorage();
+        }
+        return Arrays.asList(devices);
+    }
+
+}
@@ -0,0 +1,80 @@
+package janus.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BufferPoolTest {
+    
+    @Test
+    public void shouldLoadPageOnlyOnMiss() {
+        AtomicInteger loads = new AtomicInteger(0);
+        BufferPool<String> pool = new BufferPool<>(4, p -> {});
+        for(int i = 0; i < 3; i++) {
+            BufferPool.Frame<String> frame = pool.pin(7L, a -> {
+                loads.incrementAndGet();
+                return "page " + a;
+            });
+            Assert.assertEquals("page 7", frame.page());
+            pool.unpin(frame);
+        }
+        Assert.assertEquals(1, loads.get());
+    }
+    
+    @Test
+    public void shouldEvictUnreferencedPageFirst() {
+        BufferPool<String> pool = new BufferPool<>(3, p -> {});
+        for(long i = 0; i < 3; i++) {
+            pool.unpin(pool.pin(i, a -> "page " + a));
+        }
+        // all referenced, hand clears them and evicts page 0
+        pool.unpin(pool.pin(3L, a -> "page " + a));
+        Assert.assertFalse(pool.contains(0L));
+        
+        // page 1 referenced again survives, page 2 is evicted
+        pool.unpin(pool.pin(1L, a -> "page " + a));
+        pool.unpin(pool.pin(4L, a -> "page " + a));
+        Assert.assertTrue(pool.contains(1L));
+        Assert.assertFalse(pool.contains(2L));
+        Assert.assertEquals(3, pool.size());
+    }
+    
+    @Test
+    public void shouldNotEvictPinnedPage() {
+        BufferPool<String> pool = new BufferPool<>(2, p -> {});
+        pool.pin(0L, a -> "page " + a);
+        for(long i = 1; i < 10; i++) {
+            pool.unpin(pool.pin(i, a -> "page " + a));
+        }
+        Assert.assertTrue(pool.contains(0L));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailWhenAllPagesArePinned() {
+        BufferPool<String> pool = new BufferPool<>(2, p -> {});
+        pool.pin(0L, a -> "page " + a);
+        pool.pin(1L, a -> "page " + a);
+        pool.pin(2L, a -> "page " + a);
+    }
+    
+    @Test
+    public void shouldWriteBackOnlyDirtyPages() {
+        List<String> written = new ArrayList<>();
+        BufferPool<String> pool = new BufferPool<>(2, written::add);
+        BufferPool.Frame<String> frame = pool.pin(0L, a -> "page " + a);
+        frame.markDirty();
+        pool.unpin(frame);
+        pool.unpin(pool.pin(1L, a -> "page " + a));
+        pool.unpin(pool.pin(2L, a -> "page " + a));
+        pool.unpin(pool.pin(3L, a -> "page " + a));
+        Assert.assertEquals(1, written.size());
+        Assert.assertEquals("page 0", written.get(0));
+        
+        pool.flush();
+        Assert.assertEquals(1, written.size());
+    }
+
+}
@@ -0,0 +1,21 @@
+package janus.core.util;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BuffersTest {
+
+    @Test
+    public void shouldCountRemainingBytesOfAllBuffers() {
+        ByteBuffer[] bufs = Buffers.wrap(new byte[][] {new byte[3], new byte[5], new byte[0]});
+        Assert.assertEquals(3, bufs.length);
+        Assert.assertEquals(8L, Buffers.remaining(bufs));
+
+        bufs[1].position(4);
+        Assert.assertEquals(4L, Buffers.remaining(bufs));
+        Assert.assertEquals(0L, Buffers.remaining(Buffers.wrap(new byte[0][])));
+    }
+
+}
@@ -0,0 +1,38 @@
+package janus.core.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ByteChunksTest {
+    
+    @Test
+    public void shouldGrowByAppendingChunks() {
+        ByteChunks chunks = new ByteChunks(new byte[10], 16);
+        Assert.assertEquals(10L, chunks.capacity());
+        chunks.ensureCapacity(11);
+        Assert.assertEquals(26L, chunks.capacity());
+        chunks.ensureCapacity(1000);
+        Assert.assertEquals(10L + 16 * 62, chunks.capacity());
+    }
+    
+    @Test
+    public void shouldReadAndWriteAcrossHeadAndChunks() {
+        byte[] head = new byte[10];
+        byte[] str = "This is a test string across chunks.".getBytes();
+        ByteChunks chunks = new ByteChunks(head, 16);
+        chunks.ensureCapacity(5 + str.length);
+        chunks.write(5, str, 0, str.length);
+        
+        byte[] temp = new byte[str.length];
+        chunks.read(5, temp, 0, temp.length);
+        Assert.assertArrayEquals(str, temp);
+        Assert.assertEquals(str[0], head[5]);
+    }
+    
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void shouldNotBeAbleToReadBeyondCapacity() {
+        ByteChunks chunks = new ByteChunks(new byte[10], 16);
+        chunks.read(8, new byte[4], 0, 4);
+    }
+
+}
@@ -0,0 +1,42 @@
+package janus.core.util;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BytesTest {
+
+    @Test
+    public void shouldMatchByteBufferByteOrder() {
+        byte[] data = new byte[32];
+        Bytes.putShort(data, 0, (short) -12345);
+        Bytes.putInt(data, 2, 0xCAFEBABE);
+        Bytes.putLong(data, 6, 0x8123456789ABCDEFL);
+
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        Assert.assertEquals((short) -12345, buf.getShort(0));
+        Assert.assertEquals(0xCAFEBABE, buf.getInt(2));
+        Assert.assertEquals(0x8123456789ABCDEFL, buf.getLong(6));
+
+        Assert.assertEquals((short) -12345, Bytes.getShort(data, 0));
+        Assert.assertEquals(0xCAFEBABE, Bytes.getInt(data, 2));
+        Assert.assertEquals(0x8123456789ABCDEFL, Bytes.getLong(data, 6));
+    }
+
+    @Test
+    public void shouldBeAbleToReadAndWriteLongArray() {
+        long[] values = {-1L, 0L, 1L, Long.MAX_VALUE, Long.MIN_VALUE};
+        byte[] data = new byte[4 + values.length * SizeOf.LONG.length];
+        Bytes.putLongs(data, 4, values, 1, 3);
+
+        long[] expected = new long[3];
+        ByteBuffer.wrap(data, 4, 3 * SizeOf.LONG.length).asLongBuffer().get(expected);
+        Assert.assertArrayEquals(new long[]{0L, 1L, Long.MAX_VALUE}, expected);
+
+        long[] result = new long[5];
+        Bytes.getLongs(data, 4, result, 2, 3);
+        Assert.assertArrayEquals(new long[]{0L, 0L, 0L, 1L, Long.MAX_VALUE}, result);
+    }
+
+}
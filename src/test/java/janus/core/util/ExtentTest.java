@@ -0,0 +1,39 @@
+package janus.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExtentTest {
+
+    @Test
+    public void shouldCreatePagesOnlyOnRequest() {
+        List<Long> created = new ArrayList<>();
+        Extent<Long> extent = new Extent<>(4096L, 1 << 30, 1024, a -> {
+            created.add(a);
+            return a;
+        });
+        Assert.assertEquals(1 << 30, extent.count());
+        Assert.assertEquals(4096L + 1024L * ((1 << 30) - 1), extent.address((1 << 30) - 1));
+        Assert.assertTrue(created.isEmpty());
+
+        Assert.assertEquals(Long.valueOf(4096L + 3 * 1024L), extent.page(3));
+        Assert.assertEquals(1, created.size());
+    }
+
+    @Test
+    public void shouldDecorateEachPageCreated() {
+        Extent<String> extent = new Extent<>(0L, 4, 128, a -> a).map(a -> "page@" + a);
+        Assert.assertEquals(4, extent.count());
+        Assert.assertEquals(128, extent.pageLength());
+        Assert.assertEquals("page@256", extent.page(2));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotAddressPagesOutsideExtent() {
+        new Extent<>(0L, 4, 128, a -> a).address(4);
+    }
+
+}
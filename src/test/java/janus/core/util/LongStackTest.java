@@ -0,0 +1,71 @@
+package janus.core.util;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongStackTest {
+    
+    @Test
+    public void shouldPopLastPushedFirst() {
+        LongStack stack = new LongStack();
+        Assert.assertEquals(-1L, stack.pop());
+        for(long i = 0; i < 5; i++) {
+            Assert.assertEquals(i + 1, stack.push(i));
+        }
+        Assert.assertEquals(4L, stack.pop());
+        Assert.assertEquals(3L, stack.pop());
+        Assert.assertEquals(3, stack.size());
+    }
+    
+    @Test
+    public void shouldPopInBatch() {
+        LongStack stack = new LongStack();
+        for(long i = 0; i < 5; i++) {
+            stack.push(i);
+        }
+        long[] buf = new long[4];
+        Assert.assertEquals(3, stack.pop(buf, 1, 3));
+        Assert.assertArrayEquals(new long[] {0L, 4L, 3L, 2L}, buf);
+        Assert.assertEquals(2, stack.pop(buf, 0, 4));
+        Assert.assertEquals(0, stack.pop(buf, 0, 4));
+        Assert.assertTrue(stack.isEmpty());
+    }
+    
+    @Test
+    public void shouldNotLoseValuesUnderConcurrency() throws Exception {
+        LongStack stack = new LongStack();
+        int perThread = 10000;
+        Thread[] threads = new Thread[4];
+        long[][] popped = new long[threads.length][perThread];
+        for(int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < perThread; i++) {
+                    stack.push((long) id * perThread + i);
+                    long value = stack.pop();
+                    while(value < 0) {
+                        value = stack.pop();
+                    }
+                    popped[id][i] = value;
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        long[] all = Arrays.stream(popped).flatMapToLong(Arrays::stream).sorted().toArray();
+        for(int i = 0; i < all.length; i++) {
+            Assert.assertEquals(i, all[i]);
+        }
+        Assert.assertTrue(stack.isEmpty());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBeAbleToPushNegativeValue() {
+        new LongStack().push(-1L);
+    }
+
+}
@@ -0,0 +1,66 @@
+package janus.core.util;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SortedLongArrayTest {
+    
+    @Test
+    public void shouldKeepValuesSorted() {
+        SortedLongArray set = new SortedLongArray(2);
+        for(long value : new long[] {50L, 10L, 40L, 20L, 30L}) {
+            Assert.assertTrue(set.add(value));
+        }
+        Assert.assertFalse(set.add(30L));
+        Assert.assertArrayEquals(new long[] {10L, 20L, 30L, 40L, 50L}, set.toArray());
+        Assert.assertTrue(set.contains(40L));
+        Assert.assertFalse(set.contains(45L));
+    }
+    
+    @Test
+    public void shouldPollSmallestValueFirst() {
+        SortedLongArray set = new SortedLongArray();
+        for(long i = 10; i > 0; i--) {
+            set.add(i);
+        }
+        Assert.assertEquals(1L, set.pollFirst());
+        Assert.assertEquals(2L, set.pollFirst());
+        Assert.assertTrue(set.add(1L));
+        Assert.assertEquals(1L, set.first());
+        Assert.assertEquals(9, set.size());
+    }
+    
+    @Test
+    public void shouldMatchTreeSet() {
+        Random rand = new Random(42L);
+        SortedLongArray set = new SortedLongArray();
+        TreeSet<Long> expected = new TreeSet<>();
+        for(int i = 0; i < 20000; i++) {
+            long value = rand.nextInt(2000);
+            switch(rand.nextInt(3)) {
+                case 0:
+                    Assert.assertEquals(expected.add(value), set.add(value));
+                    break;
+                case 1:
+                    Assert.assertEquals(expected.remove(value), set.remove(value));
+                    break;
+                default:
+                    if(!expected.isEmpty()) {
+                        Assert.assertEquals((long) expected.pollFirst(), set.pollFirst());
+                    }
+                    break;
+            }
+            Assert.assertEquals(expected.size(), set.size());
+        }
+        Assert.assertArrayEquals(expected.stream().mapToLong(v -> v).toArray(), set.toArray());
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotBeAbleToPollEmptySet() {
+        new SortedLongArray().pollFirst();
+    }
+
+}
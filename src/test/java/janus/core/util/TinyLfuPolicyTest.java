@@ -0,0 +1,78 @@
+package janus.core.util;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TinyLfuPolicyTest {
+    
+    @Test
+    public void shouldKeepHotKeysThroughScan() {
+        TinyLfuPolicy policy = new TinyLfuPolicy(100);
+        long[] trace = this.scanTrace(100, 50, 20000);
+        double tinyLfu = EvictionPolicy.hitRatio(policy, 100, trace);
+        double lru = EvictionPolicy.hitRatio(new LruPolicy(), 100, trace);
+        // half of the trace are scan keys which can never hit
+        Assert.assertTrue("TinyLFU " + tinyLfu + " vs LRU " + lru, tinyLfu > lru + 0.1);
+        Assert.assertTrue("TinyLFU " + tinyLfu, tinyLfu > 0.45);
+    }
+    
+    @Test
+    public void shouldNotBeWorseThanLruOnSkewedTrace() {
+        Random rand = new Random(100);
+        long[] trace = new long[50000];
+        for(int i = 0; i < trace.length; i++) {
+            // roughly zipfian over 2000 keys
+            trace[i] = (long) Math.pow(2000, rand.nextDouble());
+        }
+        double tinyLfu = EvictionPolicy.hitRatio(new TinyLfuPolicy(100), 100, trace);
+        double lru = EvictionPolicy.hitRatio(new LruPolicy(), 100, trace);
+        Assert.assertTrue("TinyLFU " + tinyLfu + " vs LRU " + lru, tinyLfu >= lru);
+    }
+    
+    @Test
+    public void shouldOnlyEvictEvictableKeys() {
+        TinyLfuPolicy policy = new TinyLfuPolicy(4);
+        for(long i = 0; i < 4; i++) {
+            policy.insert(i);
+        }
+        Assert.assertEquals(3L, policy.victim(k -> k == 3L));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailWhenNothingIsEvictable() {
+        TinyLfuPolicy policy = new TinyLfuPolicy(4);
+        for(long i = 0; i < 4; i++) {
+            policy.insert(i);
+        }
+        policy.victim(k -> false);
+    }
+    
+    @Test
+    public void shouldEstimateFrequency() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for(int i = 0; i < 5; i++) {
+            sketch.increment(42L);
+        }
+        sketch.increment(7L);
+        Assert.assertTrue(sketch.frequency(42L) >= 5);
+        Assert.assertTrue(sketch.frequency(7L) >= 1);
+        Assert.assertTrue(sketch.frequency(42L) > sketch.frequency(7L));
+    }
+    
+    /**
+     * Hot keys accessed repeatedly, interleaved with runs of a scan over keys
+     * never accessed again.
+     */
+    protected long[] scanTrace(int capacity, int hot, int len) {
+        Random rand = new Random(capacity);
+        long[] trace = new long[len];
+        long scan = 1000000L;
+        for(int i = 0; i < len; i++) {
+            trace[i] = (i / 200) % 2 == 0 ? rand.nextInt(hot) : scan++;
+        }
+        return trace;
+    }
+
+}